@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Randomised check of the edge filter on the single-operation methods. Every trial drives two graphs
+// with the same stream of insertEdge, deleteEdge, hasEdge, deleteNode and createNode calls, one with
+// the filter enabled and one without, and requires identical answers and adjacency lists. The filter
+// starts small so that rebuilds (from growth and from deletions) happen throughout, and the stream
+// also forces rebuilds and turns the filter off and on again. Self-pairs are included.
+public class EdgeFilterCheck {
+    private static final int TRIALS = 100;
+    private static final int OPS = 2000;
+    private static final int COMPARE_EVERY = 100;
+
+    // Usage: java EdgeFilterCheck [seed]
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 3;
+        Random random = new Random(seed);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 2 + random.nextInt(40);
+            Graph filtered = new Graph();
+            Graph plain = new Graph();
+            GraphNode[] nodes = new GraphNode[n];
+            for (int i = 0; i < n; i++) {
+                nodes[i] = filtered.createNode("f" + i);
+                plain.createNode("f" + i);
+            }
+            filtered.enableEdgeFilter(4);
+
+            for (int op = 0; op < OPS; op++) {
+                String where = "trial " + trial + ", op " + op;
+                List<GraphNode> live = new ArrayList<>(filtered.getAdjacencyList().keySet());
+                int kind = random.nextInt(100);
+                if (live.isEmpty() || kind < 2) {
+                    GraphNode node = nodes[random.nextInt(n)];
+                    filtered.createNode(node.getData());
+                    plain.createNode(node.getData());
+                    continue;
+                }
+                GraphNode a = live.get(random.nextInt(live.size()));
+                // About one pair in twenty is a self-pair.
+                GraphNode b = random.nextInt(20) == 0 ? a : live.get(random.nextInt(live.size()));
+                if (kind < 40) {
+                    int w = 1 + random.nextInt(20);
+                    filtered.insertEdge(a, b, w);
+                    plain.insertEdge(a, b, w);
+                } else if (kind < 65) {
+                    filtered.deleteEdge(a, b);
+                    plain.deleteEdge(a, b);
+                } else if (kind < 96) {
+                    if (filtered.hasEdge(a, b) != plain.hasEdge(a, b)) {
+                        throw new IllegalStateException(where + ": hasEdge(" + a.getData() + ", " + b.getData()
+                                + ") is " + filtered.hasEdge(a, b) + " with the filter, " + plain.hasEdge(a, b)
+                                + " without");
+                    }
+                } else if (kind < 98) {
+                    filtered.deleteNode(a);
+                    plain.deleteNode(a);
+                } else if (kind < 99) {
+                    filtered.rebuildEdgeFilter();
+                } else {
+                    filtered.disableEdgeFilter();
+                    filtered.enableEdgeFilter(1 + random.nextInt(16));
+                }
+
+                if (op % COMPARE_EVERY == 0 || op == OPS - 1) {
+                    compare(filtered, plain, nodes, where);
+                }
+            }
+        }
+        System.out.println("The edge filter matched an unfiltered graph over " + TRIALS * OPS
+                + " random single operations.");
+    }
+
+    private static void compare(Graph filtered, Graph plain, GraphNode[] nodes, String where) {
+        if (!GraphBatchCheck.describe(filtered).equals(GraphBatchCheck.describe(plain))) {
+            throw new IllegalStateException(where + ": filtered graph " + GraphBatchCheck.describe(filtered)
+                    + ", unfiltered " + GraphBatchCheck.describe(plain));
+        }
+        for (GraphNode a : nodes) {
+            for (GraphNode b : nodes) {
+                if (filtered.hasEdge(a, b) != plain.hasEdge(a, b)) {
+                    throw new IllegalStateException(where + ": hasEdge(" + a.getData() + ", " + b.getData()
+                            + ") differs");
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
@@ -8,11 +10,16 @@ import java.util.regex.Pattern;
 
 public class Graph {
     private Map<GraphNode, List<Edge>> adjacencyList;
+    private EdgeFilter edgeFilter;
 
     public Graph() {
         adjacencyList = new LinkedHashMap<>();
     }
 
+    public Map<GraphNode, List<Edge>> getAdjacencyList() {
+        return adjacencyList;
+    }
+
     public GraphNode createNode(String data) {
         GraphNode node = new GraphNode(data);
         if (adjacencyList.containsKey(node)) {
@@ -26,24 +33,86 @@ public class Graph {
         if (!adjacencyList.containsKey(node)) {
             return;
         }
-        adjacencyList.remove(node);
+        List<Edge> removed = adjacencyList.remove(node);
         for (GraphNode other : adjacencyList.keySet()) {
             List<Edge> edges = adjacencyList.get(other);
             edges.removeIf(e -> e.isConnectedTo(node));
         }
+
+        if (edgeFilter != null) {
+            edgeFilter.recordRemovals(removed.size());
+            if (edgeFilter.needsRebuild()) {
+                rebuildEdgeFilter();
+            }
+        }
     }
 
     public void insertEdge(GraphNode n1, GraphNode n2, int weight) {
         Edge newEdge = new Edge(n1, n2, weight);
         List<Edge> edges1 = adjacencyList.get(n1);
-        for (Edge edge : edges1) {
-            if (edge.isConnectedTo(n2)) {
-                edge.setWeight(weight);
-                return;
+        // Self-pairs always scan: every edge of n1 "connects" to n1, so the filter cannot answer for them.
+        if (edgeFilter == null || n1.equals(n2) || edgeFilter.mightContain(n1, n2)) {
+            for (Edge edge : edges1) {
+                if (edge.isConnectedTo(n2)) {
+                    edge.setWeight(weight);
+                    return;
+                }
             }
         }
         edges1.add(newEdge);
         adjacencyList.get(n2).add(newEdge);
+        if (edgeFilter != null) {
+            edgeFilter.add(n1, n2);
+            if (edgeFilter.needsRebuild()) {
+                rebuildEdgeFilter();
+            }
+        }
+    }
+
+    public boolean hasEdge(GraphNode n1, GraphNode n2) {
+        List<Edge> edges = adjacencyList.get(n1);
+        if (edges == null || !adjacencyList.containsKey(n2)) {
+            return false;
+        }
+        if (edgeFilter != null && !edgeFilter.mightContain(n1, n2)) {
+            return false;
+        }
+        for (Edge edge : edges) {
+            if (n2.equals(edge.getOppositeEndpoint(n1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Keeps a Bloom filter of unordered endpoint pairs next to the adjacency lists, so that
+    // hasEdge and insertEdge skip the list scan whenever the edge is definitely absent.
+    public void enableEdgeFilter(int expectedEdges) {
+        edgeFilter = new EdgeFilter(expectedEdges);
+        addAllEdges(edgeFilter);
+    }
+
+    public void disableEdgeFilter() {
+        edgeFilter = null;
+    }
+
+    // Deleted edges stay in the filter as false positives; rebuilding drops them.
+    public void rebuildEdgeFilter() {
+        if (edgeFilter == null) {
+            return;
+        }
+        EdgeFilter rebuilt = new EdgeFilter(Math.max(edgeFilter.expectedEdges(), 2 * edgeFilter.liveEdges()));
+        addAllEdges(rebuilt);
+        edgeFilter = rebuilt;
+    }
+
+    private void addAllEdges(EdgeFilter filter) {
+        for (Map.Entry<GraphNode, List<Edge>> entry : adjacencyList.entrySet()) {
+            for (Edge edge : entry.getValue()) {
+                // Each edge is normally listed under both endpoints: add every listing, count it once.
+                filter.add(edge.getEndpoint1(), edge.getEndpoint2(), edge.getEndpoint1().equals(entry.getKey()));
+            }
+        }
     }
 
     public void deleteEdge(GraphNode n1, GraphNode n2) {
@@ -52,11 +121,160 @@ public class Graph {
             return;
         }
 
+        if (edgeFilter != null && !n1.equals(n2) && !edgeFilter.mightContain(n1, n2)) {
+            return;
+        }
+
         List<Edge> edges = adjacencyList.get(n1);
+        int before = edges.size();
         edges.removeIf(e -> e.isConnectedTo(n2));
+        int removed = before - edges.size();
 
         edges = adjacencyList.get(n2);
         edges.removeIf(e -> e.isConnectedTo(n1));
+
+        if (edgeFilter != null && removed > 0) {
+            edgeFilter.recordRemovals(removed);
+            if (edgeFilter.needsRebuild()) {
+                rebuildEdgeFilter();
+            }
+        }
+    }
+
+    public void insertEdges(GraphNode[] n1, GraphNode[] n2, int[] weights) {
+        if (n1.length != n2.length || n1.length != weights.length) {
+            throw new IllegalArgumentException("endpoint and weight arrays must have the same length");
+        }
+        GraphBatch batch = new GraphBatch(n1.length);
+        for (int i = 0; i < n1.length; i++) {
+            batch.insertEdge(n1[i], n2[i], weights[i]);
+        }
+        applyBatch(batch);
+    }
+
+    public void deleteNodes(Collection<GraphNode> nodes) {
+        GraphBatch batch = new GraphBatch(nodes.size());
+        for (GraphNode node : nodes) {
+            batch.deleteNode(node);
+        }
+        applyBatch(batch);
+    }
+
+    // Applies the batch with each affected adjacency list scanned at most once, instead of once per
+    // operation: node deletions only visit the deleted nodes' neighbours, and edge operations are
+    // deduplicated per endpoint pair (last one wins) before their endpoints' lists are visited.
+    public void applyBatch(GraphBatch batch) {
+        Set<GraphNode> deletedNodes = new HashSet<>();
+        Map<Long, Integer> lastEdgeOp = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.op(i) == GraphBatch.DELETE_NODE) {
+                if (adjacencyList.containsKey(batch.first(i))) {
+                    deletedNodes.add(batch.first(i));
+                }
+            } else {
+                lastEdgeOp.put(pairKey(batch.first(i), batch.second(i)), i);
+            }
+        }
+
+        Map<Long, Integer> inserts = new HashMap<>();
+        Set<Long> deletes = new HashSet<>();
+        Set<GraphNode> touched = new HashSet<>();
+        for (Map.Entry<Long, Integer> entry : lastEdgeOp.entrySet()) {
+            int i = entry.getValue();
+            GraphNode n1 = batch.first(i);
+            GraphNode n2 = batch.second(i);
+            if (deletedNodes.contains(n1) || deletedNodes.contains(n2)
+                    || !adjacencyList.containsKey(n1) || !adjacencyList.containsKey(n2)) {
+                continue;
+            }
+            if (batch.op(i) == GraphBatch.INSERT_EDGE) {
+                inserts.put(entry.getKey(), i);
+                // An existing edge is listed under both endpoints, so checking one list is enough.
+                touched.add(n1);
+            } else {
+                deletes.add(entry.getKey());
+                touched.add(n1);
+                touched.add(n2);
+            }
+        }
+        for (GraphNode node : deletedNodes) {
+            for (Edge edge : adjacencyList.get(node)) {
+                touched.add(edge.getOppositeEndpoint(node));
+            }
+        }
+
+        // Single pass over the touched lists: drop deleted edges, update weights of re-inserted ones.
+        int removed = 0;
+        for (GraphNode node : touched) {
+            if (deletedNodes.contains(node)) {
+                continue;
+            }
+            List<Edge> edges = adjacencyList.get(node);
+            int before = edges.size();
+            edges.removeIf(e -> {
+                long key = pairKey(e.getEndpoint1(), e.getEndpoint2());
+                if (deletedNodes.contains(e.getOppositeEndpoint(node)) || deletes.contains(key)) {
+                    return true;
+                }
+                Integer i = inserts.remove(key);
+                if (i != null) {
+                    e.setWeight(batch.weight(i));
+                }
+                return false;
+            });
+            removed += before - edges.size();
+        }
+        for (GraphNode node : deletedNodes) {
+            removed += adjacencyList.remove(node).size();
+        }
+
+        // Whatever is left in inserts is a new edge; sort by first endpoint and pre-size each list once.
+        int[] order = new int[inserts.size()];
+        int count = 0;
+        for (int i : inserts.values()) {
+            order[count++] = i;
+        }
+        long[] keyed = new long[count];
+        for (int k = 0; k < count; k++) {
+            keyed[k] = (long) batch.first(order[k]).getId() << 32 | order[k];
+        }
+        Arrays.sort(keyed);
+        Map<GraphNode, Integer> added = new HashMap<>();
+        for (int i : order) {
+            added.merge(batch.first(i), 1, Integer::sum);
+            added.merge(batch.second(i), 1, Integer::sum);
+        }
+        for (Map.Entry<GraphNode, Integer> entry : added.entrySet()) {
+            List<Edge> edges = adjacencyList.get(entry.getKey());
+            if (edges instanceof ArrayList) {
+                ((ArrayList<Edge>) edges).ensureCapacity(edges.size() + entry.getValue());
+            }
+        }
+        for (long k : keyed) {
+            int i = (int) k;
+            GraphNode n1 = batch.first(i);
+            GraphNode n2 = batch.second(i);
+            Edge edge = new Edge(n1, n2, batch.weight(i));
+            adjacencyList.get(n1).add(edge);
+            adjacencyList.get(n2).add(edge);
+            if (edgeFilter != null) {
+                edgeFilter.add(n1, n2);
+            }
+        }
+
+        if (edgeFilter != null) {
+            // Each removed edge was counted once per list it sat in.
+            edgeFilter.recordRemovals(removed / 2);
+            if (edgeFilter.needsRebuild()) {
+                rebuildEdgeFilter();
+            }
+        }
+    }
+
+    private static long pairKey(GraphNode n1, GraphNode n2) {
+        int a = Math.min(n1.getId(), n2.getId());
+        int b = Math.max(n1.getId(), n2.getId());
+        return (long) a << 32 | b;
     }
 
     public static Graph loadFromFile(String filename) {
@@ -114,27 +332,58 @@ public class Graph {
 
 class GraphNode {
     private String data;
+    private int id;
 
+    // Hashes the label once, here, to look up its id; reuse the nodes a Graph hands out rather than
+    // constructing throwaway ones for lookups.
     public GraphNode(String data) {
         this.data = data;
+        this.id = LabelDictionary.intern(data);
     }
 
     public String getData() {
         return data;
     }
 
+    // Id shared by every GraphNode with this label. Ids are dense across the whole process, not per
+    // Graph, so a graph's ids can be sparse if other graphs were loaded before it.
+    public int getId() {
+        return id;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null || getClass() != obj.getClass()) {
             return false;
         }
         GraphNode other = (GraphNode) obj;
-        return data.equals(other.data);
+        return id == other.id;
     }
 
     @Override
     public int hashCode() {
-        return data.hashCode();
+        return id;
+    }
+}
+
+// Process-wide label -> id table, shared so that nodes from different Graph instances with the same
+// label stay equal. Ids are handed out densely from 0 in first-seen order and never reused or dropped,
+// so the table grows with every distinct label the process has seen: a long-running process that
+// loads many unrelated graphs keeps all of their labels.
+class LabelDictionary {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    public static int intern(String label) {
+        Integer id = ids.get(label);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(label, l -> nextId.getAndIncrement());
+    }
+
+    public static int size() {
+        return nextId.get();
     }
 }
 
@@ -166,16 +415,97 @@ class Edge {
     }
 
     public boolean isConnectedTo(GraphNode node) {
-        return endpoint1.equals(node) || endpoint2.equals(node);
+        int id = node.getId();
+        return endpoint1.getId() == id || endpoint2.getId() == id;
     }
 
     public GraphNode getOppositeEndpoint(GraphNode node) {
-        if (endpoint1.equals(node)) {
+        int id = node.getId();
+        if (endpoint1.getId() == id) {
             return endpoint2;
-        } else if (endpoint2.equals(node)) {
+        } else if (endpoint2.getId() == id) {
             return endpoint1;
         } else {
             return null;
         }
     }
-}
\ No newline at end of file
+}
+
+class EdgeFilter {
+    private static final int BITS_PER_EDGE = 10;
+    private static final int NUM_HASHES = 7;
+
+    private long[] bits;
+    private int numBits;
+    private int expectedEdges;
+    private int added;
+    private int removed;
+
+    public EdgeFilter(int expectedEdges) {
+        this.expectedEdges = Math.max(16, expectedEdges);
+        numBits = (int) Math.min(Integer.MAX_VALUE - 63, (long) this.expectedEdges * BITS_PER_EDGE);
+        bits = new long[(numBits + 63) >>> 6];
+    }
+
+    public void add(GraphNode n1, GraphNode n2) {
+        add(n1, n2, true);
+    }
+
+    public void add(GraphNode n1, GraphNode n2, boolean count) {
+        long h = pairHash(n1, n2);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int index = index(h, i);
+            bits[index >>> 6] |= 1L << index;
+        }
+        if (count) {
+            added++;
+        }
+    }
+
+    public boolean mightContain(GraphNode n1, GraphNode n2) {
+        long h = pairHash(n1, n2);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int index = index(h, i);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void recordRemovals(int count) {
+        removed += count;
+    }
+
+    // Rebuild once deletions leave more stale keys than live ones, or the filter is over capacity.
+    public boolean needsRebuild() {
+        return removed > liveEdges() || added > 2 * expectedEdges;
+    }
+
+    public int liveEdges() {
+        return Math.max(0, added - removed);
+    }
+
+    public int expectedEdges() {
+        return expectedEdges;
+    }
+
+    private int index(long h, int i) {
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        return ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+    }
+
+    // Symmetric in its arguments, so (n1, n2) and (n2, n1) map to the same key.
+    private static long pairHash(GraphNode n1, GraphNode n2) {
+        return mix(n1.hashCode()) + mix(n2.hashCode());
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 29;
+        return h;
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Arrays;
+
+// A recorded sequence of graph mutations for Graph.applyBatch, held in parallel arrays.
+//
+// A batch is applied as a whole rather than op by op: node deletions first, then, for every
+// unordered endpoint pair, only the last edge operation recorded for it. Edge operations that touch
+// a deleted node are dropped.
+public class GraphBatch {
+    static final byte INSERT_EDGE = 0;
+    static final byte DELETE_EDGE = 1;
+    static final byte DELETE_NODE = 2;
+
+    private byte[] ops;
+    private GraphNode[] first;
+    private GraphNode[] second;
+    private int[] weights;
+    private int size;
+
+    public GraphBatch() {
+        this(16);
+    }
+
+    public GraphBatch(int expectedOps) {
+        int capacity = Math.max(1, expectedOps);
+        ops = new byte[capacity];
+        first = new GraphNode[capacity];
+        second = new GraphNode[capacity];
+        weights = new int[capacity];
+    }
+
+    public GraphBatch insertEdge(GraphNode n1, GraphNode n2, int weight) {
+        return add(INSERT_EDGE, n1, n2, weight);
+    }
+
+    public GraphBatch deleteEdge(GraphNode n1, GraphNode n2) {
+        return add(DELETE_EDGE, n1, n2, 0);
+    }
+
+    public GraphBatch deleteNode(GraphNode node) {
+        return add(DELETE_NODE, node, null, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    byte op(int i) {
+        return ops[i];
+    }
+
+    GraphNode first(int i) {
+        return first[i];
+    }
+
+    GraphNode second(int i) {
+        return second[i];
+    }
+
+    int weight(int i) {
+        return weights[i];
+    }
+
+    private GraphBatch add(byte op, GraphNode n1, GraphNode n2, int weight) {
+        if (size == ops.length) {
+            int capacity = size * 2;
+            ops = Arrays.copyOf(ops, capacity);
+            first = Arrays.copyOf(first, capacity);
+            second = Arrays.copyOf(second, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        ops[size] = op;
+        first[size] = n1;
+        second[size] = n2;
+        weights[size] = weight;
+        size++;
+        return this;
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Randomised check of Graph.applyBatch against the one-at-a-time methods, with and without the edge
+// filter. The reference applies the batch semantics by hand: node deletions first, then the last
+// operation per endpoint pair, dropping those that touch a deleted node. Batches never pair a node
+// with itself, since applyBatch deliberately does not copy insertEdge/deleteEdge's self-pair quirk
+// (every edge of n1 counts as connected to n1).
+public class GraphBatchCheck {
+    private static final int ROUNDS = 1000;
+
+    // Usage: java GraphBatchCheck [seed]
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        Random random = new Random(seed);
+        for (int round = 0; round < ROUNDS; round++) {
+            int n = 2 + random.nextInt(30);
+            Graph batched = new Graph();
+            Graph reference = new Graph();
+            GraphNode[] nodes = new GraphNode[n];
+            for (int i = 0; i < n; i++) {
+                nodes[i] = batched.createNode("b" + i);
+                reference.createNode("b" + i);
+            }
+            if (round % 2 == 1) {
+                // A small filter so that rebuilds happen along the way.
+                batched.enableEdgeFilter(8);
+                reference.enableEdgeFilter(8);
+            }
+            int initialEdges = random.nextInt(3 * n);
+            for (int e = 0; e < initialEdges; e++) {
+                int x = random.nextInt(n);
+                int y = other(random, n, x);
+                int w = 1 + random.nextInt(20);
+                batched.insertEdge(nodes[x], nodes[y], w);
+                reference.insertEdge(nodes[x], nodes[y], w);
+            }
+
+            GraphBatch batch = new GraphBatch();
+            int ops = 1 + random.nextInt(2 * n);
+            for (int op = 0; op < ops; op++) {
+                int x = random.nextInt(n);
+                int y = other(random, n, x);
+                int kind = random.nextInt(10);
+                if (kind < 5) {
+                    batch.insertEdge(nodes[x], nodes[y], 1 + random.nextInt(20));
+                } else if (kind < 9) {
+                    batch.deleteEdge(nodes[x], nodes[y]);
+                } else {
+                    batch.deleteNode(nodes[x]);
+                }
+            }
+
+            batched.applyBatch(batch);
+            applyOneAtATime(reference, batch);
+
+            if (!describe(batched).equals(describe(reference))) {
+                throw new IllegalStateException("round " + round + ": applyBatch gave " + describe(batched)
+                        + ", one at a time gave " + describe(reference));
+            }
+            for (GraphNode a : nodes) {
+                for (GraphNode b : nodes) {
+                    if (!a.equals(b) && batched.hasEdge(a, b) != reference.hasEdge(a, b)) {
+                        throw new IllegalStateException("round " + round + ": hasEdge(" + a.getData() + ", "
+                                + b.getData() + ") differs");
+                    }
+                }
+            }
+        }
+        System.out.println("applyBatch matched the one-at-a-time methods on " + ROUNDS + " random batches.");
+    }
+
+    private static void applyOneAtATime(Graph graph, GraphBatch batch) {
+        Map<GraphNode, List<Edge>> adjacency = graph.getAdjacencyList();
+        Set<GraphNode> deleted = new HashSet<>();
+        Map<Long, Integer> last = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.op(i) == GraphBatch.DELETE_NODE) {
+                if (adjacency.containsKey(batch.first(i))) {
+                    deleted.add(batch.first(i));
+                }
+            } else {
+                int a = batch.first(i).getId();
+                int b = batch.second(i).getId();
+                last.put((long) Math.min(a, b) << 32 | Math.max(a, b), i);
+            }
+        }
+        for (GraphNode node : deleted) {
+            graph.deleteNode(node);
+        }
+        for (int i : last.values()) {
+            GraphNode n1 = batch.first(i);
+            GraphNode n2 = batch.second(i);
+            if (deleted.contains(n1) || deleted.contains(n2)) {
+                continue;
+            }
+            if (batch.op(i) == GraphBatch.INSERT_EDGE) {
+                graph.insertEdge(n1, n2, batch.weight(i));
+            } else {
+                graph.deleteEdge(n1, n2);
+            }
+        }
+    }
+
+    // Adjacency lists as sorted "neighbour:weight" entries, so list order does not matter.
+    static Map<String, List<String>> describe(Graph graph) {
+        Map<String, List<String>> description = new TreeMap<>();
+        for (Map.Entry<GraphNode, List<Edge>> entry : graph.getAdjacencyList().entrySet()) {
+            List<String> edges = new ArrayList<>();
+            for (Edge edge : entry.getValue()) {
+                edges.add(edge.getOppositeEndpoint(entry.getKey()).getData() + ":" + edge.getWeight());
+            }
+            edges.sort(null);
+            description.put(entry.getKey().getData(), edges);
+        }
+        return description;
+    }
+
+    private static int other(Random random, int n, int x) {
+        int y = random.nextInt(n - 1);
+        return y >= x ? y + 1 : y;
+    }
+}
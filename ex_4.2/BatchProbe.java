@@ -0,0 +1,9 @@
+// A lookup structure that answers many keys in one call, registered with QueryServer.registerProbe.
+// results[i] receives the answer for keys[i]; only the first count entries are meaningful. The
+// batch methods in the sibling exercises fit directly:
+//   StringIntDLeftHashTable:  (keys, count, results) -> table.lookupAll(keys, count, results)
+//   BlockedBloomFilter:       hits = new boolean[count]; filter.mightContainAll(keys, count, hits);
+//                             then results[i] = hits[i] ? 1 : 0
+public interface BatchProbe {
+    void probeAll(String[] keys, int count, int[] results);
+}
@@ -0,0 +1,372 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable snapshot of a Graph in compressed sparse row form: the neighbours of node u are
+// targets[offsets[u] .. offsets[u + 1]) with matching weights. Nodes are relabelled 0..V-1 by the
+// chosen Ordering before the arrays are laid out, so that nodes visited together sit close together
+// in memory. getNode/getId map between the dense ids and the original GraphNodes.
+public class CompactGraph {
+    public enum Ordering {
+        // Whatever the adjacency HashMap iterates in, i.e. no reordering.
+        ORIGINAL,
+        // Breadth-first discovery order, component by component.
+        BFS,
+        // Reverse Cuthill-McKee: BFS from a low-degree node, neighbours by increasing degree, then reversed.
+        RCM,
+        // Highest degree first, so the hubs share cache lines.
+        DEGREE
+    }
+
+    private int[] offsets;
+    private int[] targets;
+    private int[] weights;
+    private GraphNode[] nodes;
+    private Map<GraphNode, Integer> ids;
+
+    private CompactGraph(int[] offsets, int[] targets, int[] weights, GraphNode[] nodes) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.nodes = nodes;
+        ids = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            ids.put(nodes[i], i);
+        }
+    }
+
+    public static CompactGraph from(Graph graph, Ordering ordering) {
+        CompactGraph original = fromAdjacencyList(graph.getAdjacencyList());
+        if (ordering == Ordering.ORIGINAL) {
+            return original;
+        }
+        int[] order;
+        switch (ordering) {
+            case BFS:
+                order = original.bfsOrder(false);
+                break;
+            case RCM:
+                order = reverse(original.bfsOrder(true));
+                break;
+            default:
+                order = original.degreeOrder();
+                break;
+        }
+        return original.permute(order);
+    }
+
+    private static CompactGraph fromAdjacencyList(Map<GraphNode, List<Edge>> adjacencyList) {
+        int n = adjacencyList.size();
+        GraphNode[] nodes = adjacencyList.keySet().toArray(new GraphNode[0]);
+        Map<GraphNode, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            index.put(nodes[i], i);
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + adjacencyList.get(nodes[i]).size();
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int pos = offsets[i];
+            for (Edge edge : adjacencyList.get(nodes[i])) {
+                targets[pos] = index.get(edge.getOtherEndpoint(nodes[i]));
+                weights[pos] = edge.getWeight();
+                pos++;
+            }
+        }
+        return new CompactGraph(offsets, targets, weights, nodes);
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public int getId(GraphNode node) {
+        Integer id = ids.get(node);
+        return id == null ? -1 : id;
+    }
+
+    public GraphNode getNode(int id) {
+        return nodes[id];
+    }
+
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    int[] weights() {
+        return weights;
+    }
+
+    // Dijkstra over the CSR arrays with a lazy binary heap of (distance << 32 | node) longs.
+    // Unreachable nodes keep Integer.MAX_VALUE, as in Graph.fastSP.
+    public int[] shortestPaths(int source) {
+        ShortestPathEvent event = new ShortestPathEvent();
+        event.begin();
+        long relaxations = 0;
+        long pushes = 1;
+        long pops = 0;
+
+        int[] dist = new int[nodes.length];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[source] = 0;
+        LongHeap heap = new LongHeap(16);
+        heap.push(source);
+        while (!heap.isEmpty()) {
+            long top = heap.pop();
+            pops++;
+            int u = (int) top;
+            int d = (int) (top >>> 32);
+            if (d > dist[u]) {
+                continue;
+            }
+            relaxations += offsets[u + 1] - offsets[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                int candidate = d + weights[e];
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                    heap.push((long) candidate << 32 | v);
+                    pushes++;
+                }
+            }
+        }
+
+        if (GraphMetrics.ENABLED) {
+            GraphMetrics.recordSssp(relaxations, pushes, pops);
+        }
+        if (event.shouldCommit()) {
+            event.implementation = "CompactGraph.shortestPaths";
+            event.source = nodes[source].getData();
+            event.nodes = nodes.length;
+            event.relaxations = relaxations;
+            event.commit();
+        }
+        return dist;
+    }
+
+    // Prim's algorithm restarted in every component; returns each node's parent in the minimum
+    // spanning forest, or -1 for component roots.
+    public int[] minimumSpanningForest() {
+        int[] parent = new int[nodes.length];
+        prim(parent, new int[nodes.length]);
+        return parent;
+    }
+
+    public long minimumSpanningForestWeight() {
+        int[] parent = new int[nodes.length];
+        int[] best = new int[nodes.length];
+        prim(parent, best);
+        long total = 0;
+        for (int v = 0; v < parent.length; v++) {
+            if (parent[v] >= 0) {
+                total += best[v];
+            }
+        }
+        return total;
+    }
+
+    // best[v] ends up as the weight of the forest edge joining v to parent[v].
+    private void prim(int[] parent, int[] best) {
+        int n = nodes.length;
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(parent, -1);
+        Arrays.fill(best, Integer.MAX_VALUE);
+        LongHeap heap = new LongHeap(16);
+        for (int root = 0; root < n; root++) {
+            if (inTree[root]) {
+                continue;
+            }
+            best[root] = 0;
+            heap.push(root);
+            while (!heap.isEmpty()) {
+                int u = (int) heap.pop();
+                if (inTree[u]) {
+                    continue;
+                }
+                inTree[u] = true;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (!inTree[v] && weights[e] < best[v]) {
+                        best[v] = weights[e];
+                        parent[v] = u;
+                        // The signed weight in the high half orders the keys; the node id rides along below.
+                        heap.push((long) weights[e] << 32 | v);
+                    }
+                }
+            }
+        }
+    }
+
+    private int[] bfsOrder(boolean byDegree) {
+        int n = nodes.length;
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int tail = 0;
+        int[] starts = new int[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = i;
+        }
+        if (byDegree) {
+            // Cuthill-McKee starts each component from a node of minimum degree.
+            starts = reverse(degreeOrder());
+        }
+        int[] neighbours = new int[16];
+        for (int start : starts) {
+            if (seen[start]) {
+                continue;
+            }
+            seen[start] = true;
+            int head = tail;
+            order[tail++] = start;
+            while (head < tail) {
+                int u = order[head++];
+                int count = 0;
+                if (neighbours.length < degree(u)) {
+                    neighbours = new int[degree(u)];
+                }
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (!seen[v]) {
+                        seen[v] = true;
+                        neighbours[count++] = v;
+                    }
+                }
+                if (byDegree) {
+                    sortByDegree(neighbours, count);
+                }
+                System.arraycopy(neighbours, 0, order, tail, count);
+                tail += count;
+            }
+        }
+        return order;
+    }
+
+    private int[] degreeOrder() {
+        int n = nodes.length;
+        long[] keyed = new long[n];
+        for (int i = 0; i < n; i++) {
+            keyed[i] = (long) (Integer.MAX_VALUE - degree(i)) << 32 | i;
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) keyed[i];
+        }
+        return order;
+    }
+
+    // Stable sort of ids[0..count) by ascending degree. Keys pack the degree above the position so one
+    // primitive Arrays.sort does it in O(d log d), which matters for hubs with huge neighbourhoods.
+    private void sortByDegree(int[] ids, int count) {
+        if (count < 2) {
+            return;
+        }
+        long[] keyed = new long[count];
+        for (int i = 0; i < count; i++) {
+            keyed[i] = (long) degree(ids[i]) << 32 | i;
+        }
+        Arrays.sort(keyed);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = ids[(int) keyed[i]];
+        }
+        System.arraycopy(sorted, 0, ids, 0, count);
+    }
+
+    private static int[] reverse(int[] order) {
+        for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    // order[newId] = oldId.
+    private CompactGraph permute(int[] order) {
+        int n = order.length;
+        int[] newId = new int[n];
+        for (int i = 0; i < n; i++) {
+            newId[order[i]] = i;
+        }
+        int[] newOffsets = new int[n + 1];
+        int[] newTargets = new int[targets.length];
+        int[] newWeights = new int[weights.length];
+        GraphNode[] newNodes = new GraphNode[n];
+        for (int i = 0; i < n; i++) {
+            int old = order[i];
+            newNodes[i] = nodes[old];
+            int pos = newOffsets[i];
+            for (int e = offsets[old]; e < offsets[old + 1]; e++) {
+                newTargets[pos] = newId[targets[e]];
+                newWeights[pos] = weights[e];
+                pos++;
+            }
+            newOffsets[i + 1] = pos;
+        }
+        return new CompactGraph(newOffsets, newTargets, newWeights, newNodes);
+    }
+
+    // Binary min-heap of longs, growing as needed.
+    static class LongHeap {
+        private long[] heap;
+        private int size;
+
+        LongHeap(int capacity) {
+            heap = new long[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (last <= heap[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+}
@@ -2,11 +2,14 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.github.sh0nk.matplotlib4j.Plot;
 
 public class Graph {
     private Map<GraphNode, List<Edge>> adjacencyList;
+    private int modCount;
 
     public static void main(String[] args) {
         Graph graph = Graph.importFromFile("random.dot");
@@ -69,7 +72,12 @@ public class Graph {
     }
 
 
-    public void fastSP(GraphNode g) {
+    public Map<GraphNode, Integer> fastSP(GraphNode g) {
+        ShortestPathEvent event = new ShortestPathEvent();
+        event.begin();
+        long relaxations = 0;
+        long pushes = 0;
+        long pops = 0;
      
         Map<GraphNode, Integer> distances = new HashMap<>();
 
@@ -87,9 +95,11 @@ public class Graph {
             }
         });
         queue.add(g); 
+        pushes++;
 
         while (!queue.isEmpty()) {
             GraphNode current = queue.poll(); 
+            pops++;
 
             if (current == null || distances.get(current) == Integer.MAX_VALUE) {
          
@@ -100,18 +110,37 @@ public class Graph {
             for (Edge edge : adjacencyList.get(current)) {
                 GraphNode other = edge.getOtherEndpoint(current);
                 int weight = edge.getWeight() + distances.get(current);
+                relaxations++;
                 if (weight < distances.get(other)) {
                     distances.put(other, weight);
                     queue.add(other);
+                    pushes++;
                 }
             }
         }
+
+        if (GraphMetrics.ENABLED) {
+            GraphMetrics.recordSssp(relaxations, pushes, pops);
+        }
+        if (event.shouldCommit()) {
+            event.implementation = "Graph.fastSP";
+            event.source = g.getData();
+            event.nodes = adjacencyList.size();
+            event.relaxations = relaxations;
+            event.commit();
+        }
+        return distances;
     }
 
     public Map<GraphNode, List<Edge>> getAdjacencyList() {
         return adjacencyList;
     }
 
+    // Bumped by every structural change, so derived data such as cached distances can detect staleness.
+    public int getModCount() {
+        return modCount;
+    }
+
    
     public void timeExecution() {
         Iterator<GraphNode> it = adjacencyList.keySet().iterator();
@@ -194,11 +223,13 @@ public class Graph {
 
        
         adjacencyList.put(node, new ArrayList<>());
+        modCount++;
         return node;
     }
 
     public void removeNode(GraphNode node) {
         adjacencyList.remove(node); // Remove the node from the adjacency list.
+        modCount++;
 
         // Remove all edges that contain the node.
         for (GraphNode other : adjacencyList.keySet()) {
@@ -207,14 +238,65 @@ public class Graph {
         }
     }
 
+    // Same result as calling removeNode for each node, but only the removed nodes' neighbours
+    // are scanned, each once, instead of every list once per removed node.
+    public void removeNodes(Collection<GraphNode> nodes) {
+        // Bumped first, as in removeNode, so a call that fails part-way still invalidates caches.
+        modCount++;
+        Set<GraphNode> removed = new HashSet<>();
+        Set<GraphNode> neighbours = new HashSet<>();
+        for (GraphNode node : nodes) {
+            List<Edge> edges = adjacencyList.remove(node);
+            if (edges == null) {
+                continue;
+            }
+            removed.add(node);
+            for (Edge edge : edges) {
+                neighbours.add(edge.getOtherEndpoint(node));
+            }
+        }
+        for (GraphNode neighbour : neighbours) {
+            List<Edge> edges = adjacencyList.get(neighbour);
+            if (edges != null) {
+                edges.removeIf(e -> removed.contains(e.getEndpoint1()) || removed.contains(e.getEndpoint2()));
+            }
+        }
+    }
+
+    // Same result as calling addEdge for each index, with every touched list grown once up front.
+    public void addEdges(GraphNode[] n1, GraphNode[] n2, int[] weights) {
+        if (n1.length != n2.length || n1.length != weights.length) {
+            throw new IllegalArgumentException("endpoint and weight arrays must have the same length");
+        }
+        Map<GraphNode, Integer> added = new HashMap<>();
+        for (int i = 0; i < n1.length; i++) {
+            added.merge(n1[i], 1, Integer::sum);
+            added.merge(n2[i], 1, Integer::sum);
+        }
+        modCount++;
+        for (Map.Entry<GraphNode, Integer> entry : added.entrySet()) {
+            List<Edge> edges = adjacencyList.get(entry.getKey());
+            if (edges instanceof ArrayList) {
+                ((ArrayList<Edge>) edges).ensureCapacity(edges.size() + entry.getValue());
+            }
+        }
+        for (int i = 0; i < n1.length; i++) {
+            Edge edge = new Edge(n1[i], n2[i], weights[i]);
+            adjacencyList.get(n1[i]).add(edge);
+            adjacencyList.get(n2[i]).add(edge);
+        }
+    }
+
 
     public void addEdge(GraphNode n1, GraphNode n2, int weight) {
+        modCount++;
         Edge edge = new Edge(n1, n2, weight);
         adjacencyList.get(n1).add(edge);
         adjacencyList.get(n2).add(edge);
     }
 
     public void removeEdge(GraphNode n1, GraphNode n2) {
+        modCount++;
         List<Edge> edges = adjacencyList.get(n1);
         edges.removeIf(e -> e.hasEndpoint(n2));
 
@@ -224,6 +306,19 @@ public class Graph {
 
 
     public static Graph importFromFile(String filename) {
+        ImportEvent event = new ImportEvent();
+        event.begin();
+        Graph graph = readFile(filename);
+        if (event.shouldCommit()) {
+            event.file = filename;
+            event.nodes = graph == null ? 0 : graph.adjacencyList.size();
+            event.success = graph != null;
+            event.commit();
+        }
+        return graph;
+    }
+
+    private static Graph readFile(String filename) {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line = reader.readLine();
             if (line == null || !line.startsWith("strict graph")) {
@@ -273,27 +368,58 @@ public class Graph {
 
 class GraphNode {
     private String data;
+    private int id;
 
+    // Hashes the label once, here, to look up its id; reuse the nodes a Graph hands out rather than
+    // constructing throwaway ones for lookups.
     public GraphNode(String data) {
         this.data = data;
+        this.id = LabelDictionary.intern(data);
     }
 
     public String getData() {
         return data;
     }
 
+    // Id shared by every GraphNode with this label. Ids are dense across the whole process, not per
+    // Graph, so a graph's ids can be sparse if other graphs were loaded before it.
+    public int getId() {
+        return id;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null || getClass() != obj.getClass()) {
             return false;
         }
         GraphNode other = (GraphNode) obj;
-        return data.equals(other.data);
+        return id == other.id;
     }
 
     @Override
     public int hashCode() {
-        return data.hashCode();
+        return id;
+    }
+}
+
+// Process-wide label -> id table, shared so that nodes from different Graph instances with the same
+// label stay equal. Ids are handed out densely from 0 in first-seen order and never reused or dropped,
+// so the table grows with every distinct label the process has seen: a long-running process that
+// loads many unrelated graphs keeps all of their labels.
+class LabelDictionary {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    public static int intern(String label) {
+        Integer id = ids.get(label);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(label, l -> nextId.getAndIncrement());
+    }
+
+    public static int size() {
+        return nextId.get();
     }
 }
 
@@ -321,13 +447,15 @@ class Edge {
     }
 
     public boolean hasEndpoint(GraphNode node) {
-        return endpoint1.equals(node) || endpoint2.equals(node);
+        int id = node.getId();
+        return endpoint1.getId() == id || endpoint2.getId() == id;
     }
 
     public GraphNode getOtherEndpoint(GraphNode node) {
-        if (endpoint1.equals(node)) {
+        int id = node.getId();
+        if (endpoint1.getId() == id) {
             return endpoint2;
-        } else if (endpoint2.equals(node)) {
+        } else if (endpoint2.getId() == id) {
             return endpoint1;
         } else {
             return null;
@@ -0,0 +1,78 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Hot-path counters for the shortest-path code. Counting is off unless the JVM is started with
+// -Dmetrics.enabled=true; ENABLED is a static final, so the JIT folds every guarded update away
+// when it is off. The JFR events below cost nothing unless a recording has them enabled.
+public final class GraphMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("metrics.enabled");
+
+    static final LongAdder EDGE_RELAXATIONS = new LongAdder();
+    static final LongAdder HEAP_PUSHES = new LongAdder();
+    static final LongAdder HEAP_POPS = new LongAdder();
+    static final LongAdder SSSP_RUNS = new LongAdder();
+
+    private GraphMetrics() {
+    }
+
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("sssp.runs", SSSP_RUNS.sum());
+        snapshot.put("sssp.edgeRelaxations", EDGE_RELAXATIONS.sum());
+        snapshot.put("sssp.heapPushes", HEAP_PUSHES.sum());
+        snapshot.put("sssp.heapPops", HEAP_POPS.sum());
+        return snapshot;
+    }
+
+    public static void reset() {
+        SSSP_RUNS.reset();
+        EDGE_RELAXATIONS.reset();
+        HEAP_PUSHES.reset();
+        HEAP_POPS.reset();
+    }
+
+    // Folds the per-run tallies a search kept in locals into the shared counters.
+    static void recordSssp(long relaxations, long pushes, long pops) {
+        SSSP_RUNS.increment();
+        EDGE_RELAXATIONS.add(relaxations);
+        HEAP_PUSHES.add(pushes);
+        HEAP_POPS.add(pops);
+    }
+}
+
+@Name("graph.Import")
+@Label("Graph Import")
+@Category("Graph")
+class ImportEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Nodes")
+    int nodes;
+
+    @Label("Success")
+    boolean success;
+}
+
+@Name("graph.ShortestPath")
+@Label("Single-Source Shortest Paths")
+@Category("Graph")
+class ShortestPathEvent extends Event {
+    @Label("Implementation")
+    String implementation;
+
+    @Label("Source")
+    String source;
+
+    @Label("Nodes")
+    int nodes;
+
+    @Label("Edge Relaxations")
+    long relaxations;
+}
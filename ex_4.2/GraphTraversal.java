@@ -0,0 +1,236 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Whole-graph traversals over a CompactGraph, parallelised with parallel streams on the common
+// fork-join pool. Results are indexed by CompactGraph id; use getNode to map them back to labels.
+public class GraphTraversal {
+    // Beamer et al.'s switching thresholds for direction-optimising BFS.
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    // Bitset words handed to one parallel task.
+    private static final int WORDS_PER_TASK = 64;
+
+    private CompactGraph graph;
+    private int[] offsets;
+    private int[] targets;
+
+    public GraphTraversal(CompactGraph graph) {
+        this.graph = graph;
+        offsets = graph.offsets();
+        targets = graph.targets();
+    }
+
+    public static GraphTraversal of(Graph graph) {
+        return new GraphTraversal(CompactGraph.from(graph, CompactGraph.Ordering.BFS));
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    // Unweighted hop distance from source to every node, -1 for unreachable ones.
+    //
+    // Direction-optimising BFS over frontier bitsets: levels with a small frontier run top-down
+    // (frontier nodes claim unvisited neighbours with a CAS), levels whose frontier touches a large
+    // share of the remaining edges run bottom-up (each unvisited node looks for any frontier
+    // neighbour and stops at the first, with no contention since every node is its own writer).
+    public int[] bfs(int source) {
+        int n = graph.size();
+        int words = (n + 63) >>> 6;
+        int[] dist = new int[n];
+        Arrays.fill(dist, -1);
+        AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray frontier = new AtomicLongArray(words);
+
+        dist[source] = 0;
+        setBit(visited, source);
+        setBit(frontier, source);
+        long frontierSize = 1;
+        long frontierEdges = graph.degree(source);
+        long unexploredEdges = targets.length - frontierEdges;
+        boolean bottomUp = false;
+
+        for (int level = 0; frontierSize > 0; level++) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+            }
+
+            AtomicLongArray next = new AtomicLongArray(words);
+            if (bottomUp) {
+                bottomUpStep(frontier, next, visited, dist, level + 1);
+            } else {
+                topDownStep(frontier, next, visited, dist, level + 1);
+            }
+            frontier = next;
+
+            AtomicLongArray current = frontier;
+            long[] sizes = IntStream.range(0, tasks(words)).parallel().mapToObj(t -> {
+                long[] s = new long[2];
+                for (int w = t * WORDS_PER_TASK; w < Math.min(words, (t + 1) * WORDS_PER_TASK); w++) {
+                    long bits = current.get(w);
+                    while (bits != 0) {
+                        int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        s[0]++;
+                        s[1] += offsets[v + 1] - offsets[v];
+                    }
+                }
+                return s;
+            }).reduce(new long[2], (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]});
+            frontierSize = sizes[0];
+            frontierEdges = sizes[1];
+            unexploredEdges -= frontierEdges;
+        }
+        return dist;
+    }
+
+    private void topDownStep(AtomicLongArray frontier, AtomicLongArray next, AtomicLongArray visited,
+            int[] dist, int level) {
+        int words = frontier.length();
+        IntStream.range(0, tasks(words)).parallel().forEach(t -> {
+            for (int w = t * WORDS_PER_TASK; w < Math.min(words, (t + 1) * WORDS_PER_TASK); w++) {
+                long bits = frontier.get(w);
+                while (bits != 0) {
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                        int v = targets[e];
+                        if (!testBit(visited, v) && claimBit(visited, v)) {
+                            dist[v] = level;
+                            setBit(next, v);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private void bottomUpStep(AtomicLongArray frontier, AtomicLongArray next, AtomicLongArray visited,
+            int[] dist, int level) {
+        int n = graph.size();
+        int words = frontier.length();
+        IntStream.range(0, tasks(words)).parallel().forEach(t -> {
+            // This task owns words [t * WORDS_PER_TASK, ...), so its writes never collide with another task's.
+            int end = Math.min(n, (t + 1) * WORDS_PER_TASK * 64);
+            for (int v = t * WORDS_PER_TASK * 64; v < end; v++) {
+                if (testBit(visited, v)) {
+                    continue;
+                }
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    if (testBit(frontier, targets[e])) {
+                        dist[v] = level;
+                        setBit(visited, v);
+                        setBit(next, v);
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    // Component label per node: the smallest id in its component.
+    //
+    // Lock-free union-find: every edge is processed in parallel, roots are linked larger-to-smaller
+    // with a CAS (retrying if another thread moved the root first), and finds use path halving.
+    public int[] connectedComponents() {
+        int n = graph.size();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parent.set(v, v);
+        }
+
+        IntStream.range(0, n).parallel().forEach(u -> {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (u < v) {
+                    union(parent, u, v);
+                }
+            }
+        });
+
+        int[] labels = new int[n];
+        IntStream.range(0, n).parallel().forEach(v -> labels[v] = find(parent, v));
+        return labels;
+    }
+
+    public int componentCount() {
+        int[] labels = connectedComponents();
+        int count = 0;
+        for (int v = 0; v < labels.length; v++) {
+            if (labels[v] == v) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // histogram[d] is the number of nodes with degree d. Self-loops count twice, as in the adjacency lists.
+    public long[] degreeHistogram() {
+        int n = graph.size();
+        int maxDegree = IntStream.range(0, n).parallel().map(graph::degree).max().orElse(0);
+        int chunk = Math.max(1, WORDS_PER_TASK * 64);
+        return IntStream.range(0, (n + chunk - 1) / chunk).parallel().mapToObj(t -> {
+            long[] local = new long[maxDegree + 1];
+            for (int v = t * chunk; v < Math.min(n, (t + 1) * chunk); v++) {
+                local[graph.degree(v)]++;
+            }
+            return local;
+        }).reduce(new long[maxDegree + 1], (a, b) -> {
+            long[] sum = new long[maxDegree + 1];
+            for (int d = 0; d <= maxDegree; d++) {
+                sum[d] = a[d] + b[d];
+            }
+            return sum;
+        });
+    }
+
+    private static int find(AtomicIntegerArray parent, int v) {
+        int p = parent.get(v);
+        while (p != v) {
+            int grandparent = parent.get(p);
+            // Path halving; losing this race only means the path stays a little longer.
+            parent.compareAndSet(v, p, grandparent);
+            v = grandparent;
+            p = parent.get(v);
+        }
+        return v;
+    }
+
+    private static void union(AtomicIntegerArray parent, int u, int v) {
+        while (true) {
+            int ru = find(parent, u);
+            int rv = find(parent, v);
+            if (ru == rv) {
+                return;
+            }
+            int high = Math.max(ru, rv);
+            int low = Math.min(ru, rv);
+            if (parent.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+
+    private static int tasks(int words) {
+        return (words + WORDS_PER_TASK - 1) / WORDS_PER_TASK;
+    }
+
+    private static boolean testBit(AtomicLongArray bits, int i) {
+        return (bits.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    private static void setBit(AtomicLongArray bits, int i) {
+        claimBit(bits, i);
+    }
+
+    // Sets the bit and returns whether this call was the one that set it.
+    private static boolean claimBit(AtomicLongArray bits, int i) {
+        long mask = 1L << i;
+        long old = bits.getAndUpdate(i >>> 6, word -> word | mask);
+        return (old & mask) == 0;
+    }
+}
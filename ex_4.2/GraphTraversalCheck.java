@@ -0,0 +1,147 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Randomised check of GraphTraversal against sequential traversals of the HashMap-based Graph. The
+// graph shapes are picked to drive bfs down both step kinds: a star goes bottom-up from the first
+// level, a path stays top-down throughout, and denser random graphs switch bottom-up and back as the
+// frontier grows and shrinks. Graphs include isolated nodes, self-loops and parallel edges, and some
+// are large enough to span several parallel tasks.
+public class GraphTraversalCheck {
+    private static final int TRIALS = 120;
+    private static final int SOURCES = 4;
+
+    // Usage: java GraphTraversalCheck [seed]
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 7;
+        Random random = new Random(seed);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = trial % 10 == 0 ? 5000 + random.nextInt(10000) : 1 + random.nextInt(600);
+            GraphNode[] nodes = new GraphNode[n];
+            Graph graph = new Graph();
+            for (int i = 0; i < n; i++) {
+                nodes[i] = graph.addNode("t" + i);
+            }
+            String shape;
+            switch (trial % 4) {
+                case 0:
+                    shape = "star";
+                    for (int i = 1; i < n; i++) {
+                        graph.addEdge(nodes[0], nodes[i], 1);
+                    }
+                    break;
+                case 1:
+                    shape = "path";
+                    for (int i = 1; i < n; i++) {
+                        graph.addEdge(nodes[i - 1], nodes[i], 1);
+                    }
+                    break;
+                default:
+                    // Average degree from about 0.2 (mostly isolated nodes) up to about 40.
+                    int edges = (int) (n * (0.1 + random.nextDouble() * 20));
+                    shape = "random, " + edges + " edges";
+                    for (int e = 0; e < edges; e++) {
+                        graph.addEdge(nodes[random.nextInt(n)], nodes[random.nextInt(n)], 1);
+                    }
+                    break;
+            }
+
+            GraphTraversal traversal = GraphTraversal.of(graph);
+            CompactGraph compact = traversal.getGraph();
+            String where = "trial " + trial + " (" + shape + ", " + n + " nodes)";
+
+            for (int s = 0; s < SOURCES; s++) {
+                GraphNode source = s == 0 ? nodes[0] : nodes[random.nextInt(n)];
+                Map<GraphNode, Integer> expected = hops(graph, source);
+                int[] dist = traversal.bfs(compact.getId(source));
+                for (GraphNode node : nodes) {
+                    Integer want = expected.get(node);
+                    int got = dist[compact.getId(node)];
+                    if (got != (want == null ? -1 : want)) {
+                        throw new IllegalStateException(where + ": bfs from " + source.getData() + " gives "
+                                + got + " hops to " + node.getData() + ", expected " + want);
+                    }
+                }
+            }
+
+            int[] labels = traversal.connectedComponents();
+            for (Map.Entry<GraphNode, List<Edge>> entry : graph.getAdjacencyList().entrySet()) {
+                for (Edge edge : entry.getValue()) {
+                    int a = compact.getId(edge.getEndpoint1());
+                    int b = compact.getId(edge.getEndpoint2());
+                    if (labels[a] != labels[b]) {
+                        throw new IllegalStateException(where + ": edge " + edge.getEndpoint1().getData() + " - "
+                                + edge.getEndpoint2().getData() + " crosses components");
+                    }
+                }
+            }
+            int[] expectedLabels = components(graph, compact);
+            if (!Arrays.equals(labels, expectedLabels)) {
+                throw new IllegalStateException(where + ": connectedComponents differs from sequential BFS");
+            }
+            int components = 0;
+            for (int v = 0; v < n; v++) {
+                if (expectedLabels[v] == v) {
+                    components++;
+                }
+            }
+            if (traversal.componentCount() != components) {
+                throw new IllegalStateException(where + ": componentCount " + traversal.componentCount()
+                        + ", expected " + components);
+            }
+
+            long[] histogram = traversal.degreeHistogram();
+            long[] expectedHistogram = new long[histogram.length];
+            for (List<Edge> edges : graph.getAdjacencyList().values()) {
+                if (edges.size() >= expectedHistogram.length) {
+                    throw new IllegalStateException(where + ": degreeHistogram is missing degree " + edges.size());
+                }
+                expectedHistogram[edges.size()]++;
+            }
+            if (!Arrays.equals(histogram, expectedHistogram) || expectedHistogram[histogram.length - 1] == 0) {
+                throw new IllegalStateException(where + ": degreeHistogram " + Arrays.toString(histogram)
+                        + ", expected " + Arrays.toString(expectedHistogram));
+            }
+        }
+        System.out.println("GraphTraversal matched sequential BFS, components and degree counts on " + TRIALS
+                + " random graphs.");
+    }
+
+    // Hop count from source to every reachable node, by a plain queue-based BFS on the adjacency lists.
+    private static Map<GraphNode, Integer> hops(Graph graph, GraphNode source) {
+        Map<GraphNode, Integer> dist = new HashMap<>();
+        ArrayDeque<GraphNode> queue = new ArrayDeque<>();
+        dist.put(source, 0);
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            GraphNode u = queue.poll();
+            for (Edge edge : graph.getAdjacencyList().get(u)) {
+                GraphNode v = edge.getOtherEndpoint(u);
+                if (!dist.containsKey(v)) {
+                    dist.put(v, dist.get(u) + 1);
+                    queue.add(v);
+                }
+            }
+        }
+        return dist;
+    }
+
+    // Per compact id, the smallest compact id in its component, found by one BFS per component.
+    private static int[] components(Graph graph, CompactGraph compact) {
+        int[] labels = new int[compact.size()];
+        Arrays.fill(labels, -1);
+        for (int start = 0; start < compact.size(); start++) {
+            if (labels[start] >= 0) {
+                continue;
+            }
+            // Ids are visited in increasing order, so start is the smallest id of a new component.
+            for (GraphNode node : hops(graph, compact.getNode(start)).keySet()) {
+                labels[compact.getId(node)] = start;
+            }
+        }
+        return labels;
+    }
+}
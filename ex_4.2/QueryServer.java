@@ -0,0 +1,269 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-process query front end that coalesces concurrent requests into micro-batches.
+//
+// Callers enqueue shortest-path and probe queries on a bounded queue and get a future back. A single
+// dispatcher thread drains up to maxBatch queries at a time, groups distance queries by source so each
+// distinct source costs one fastSP (or one ShortestPathCache lookup) however many callers asked for it,
+// and groups probes by registered BatchProbe so each structure sees one probeAll call per batch. The
+// groups run on handler threads: virtual threads when the runtime has them, a platform pool otherwise.
+//
+// Backpressure: when the queue is full, submitting blocks the caller until the dispatcher catches up.
+// The graph must not be modified while the server is running.
+public class QueryServer implements AutoCloseable {
+    private static final long POLL_MILLIS = 10;
+
+    private Graph graph;
+    private ShortestPathCache cache;
+    private Map<String, BatchProbe> probes = new ConcurrentHashMap<>();
+    private BlockingQueue<Query> queue;
+    private int maxBatch;
+    private ExecutorService handlers;
+    private Thread dispatcher;
+    private volatile boolean running = true;
+
+    private LatencyHistogram latencies = new LatencyHistogram();
+    private LongAdder batches = new LongAdder();
+    private LongAdder queries = new LongAdder();
+    private LongAdder searches = new LongAdder();
+
+    public QueryServer(Graph graph, int queueCapacity, int maxBatch) {
+        this(graph, null, queueCapacity, maxBatch);
+    }
+
+    // cache may be null. ShortestPathCache is synchronized, so with a cache the searches of one batch
+    // run one after another; without one they run in parallel on the handlers.
+    public QueryServer(Graph graph, ShortestPathCache cache, int queueCapacity, int maxBatch) {
+        if (queueCapacity <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("queueCapacity and maxBatch must be positive");
+        }
+        this.graph = graph;
+        this.cache = cache;
+        this.maxBatch = maxBatch;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        handlers = newThreadPerTaskExecutor(Runtime.getRuntime().availableProcessors());
+        dispatcher = new Thread(this::dispatchLoop, "query-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public void registerProbe(String name, BatchProbe probe) {
+        probes.put(name, probe);
+    }
+
+    // Distance from source to target, Integer.MAX_VALUE if unreachable. Blocks while the queue is full.
+    public CompletableFuture<Integer> distance(GraphNode source, GraphNode target) throws InterruptedException {
+        return submit(new Query(source, target, null, null));
+    }
+
+    // Result of the named probe for key. Blocks while the queue is full.
+    public CompletableFuture<Integer> probe(String probeName, String key) throws InterruptedException {
+        if (!probes.containsKey(probeName)) {
+            throw new IllegalArgumentException("no probe registered as " + probeName);
+        }
+        return submit(new Query(null, null, probeName, key));
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    // Number of shortest-path searches actually run, after grouping by source.
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    // Stops accepting queries, answers everything already queued, and waits for the handlers.
+    @Override
+    public void close() {
+        running = false;
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything that slipped in between the running check in submit and the dispatcher exiting.
+        List<Query> late = new ArrayList<>();
+        queue.drainTo(late);
+        fail(late, new IllegalStateException("server is closed"));
+        handlers.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryServer[queries=" + getQueries() + ", batches=" + getBatches() + ", searches=" + getSearches()
+                + ", latency " + latencies.summary() + "]";
+    }
+
+    private CompletableFuture<Integer> submit(Query query) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("server is closed");
+        }
+        query.enqueued = System.nanoTime();
+        queue.put(query);
+        // close() may have run while this thread was between the check above and put (or blocked in
+        // put on a full queue), after the dispatcher's last look and close's own drain. If the query is
+        // still queued nobody else will answer it; removing it decides the race against the dispatcher.
+        if (!running && queue.remove(query)) {
+            query.result.completeExceptionally(new IllegalStateException("server is closed"));
+        }
+        return query.result;
+    }
+
+    private void dispatchLoop() {
+        List<Query> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            Query first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatch - 1);
+            try {
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void dispatch(List<Query> batch) throws InterruptedException {
+        Map<GraphNode, List<Query>> bySource = new HashMap<>();
+        Map<String, List<Query>> byProbe = new HashMap<>();
+        for (Query query : batch) {
+            if (query.source != null) {
+                bySource.computeIfAbsent(query.source, s -> new ArrayList<>()).add(query);
+            } else {
+                byProbe.computeIfAbsent(query.probe, p -> new ArrayList<>()).add(query);
+            }
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(bySource.size() + byProbe.size());
+        for (Map.Entry<GraphNode, List<Query>> group : bySource.entrySet()) {
+            tasks.add(() -> {
+                answerDistances(group.getKey(), group.getValue());
+                return null;
+            });
+        }
+        for (Map.Entry<String, List<Query>> group : byProbe.entrySet()) {
+            tasks.add(() -> {
+                answerProbes(probes.get(group.getKey()), group.getValue());
+                return null;
+            });
+        }
+        batches.increment();
+        queries.add(batch.size());
+        // Waiting for the batch is what makes the next one worth having: new queries pile up in the
+        // queue meanwhile rather than in the executor, and a full queue pushes back on the callers.
+        handlers.invokeAll(tasks);
+    }
+
+    private void answerDistances(GraphNode source, List<Query> group) {
+        try {
+            Map<GraphNode, Integer> distances = cache != null ? cache.distancesFrom(source) : graph.fastSP(source);
+            searches.increment();
+            for (Query query : group) {
+                Integer distance = distances.get(query.target);
+                complete(query, distance == null ? Integer.MAX_VALUE : distance);
+            }
+        } catch (RuntimeException | Error e) {
+            fail(group, e);
+        }
+    }
+
+    private void answerProbes(BatchProbe probe, List<Query> group) {
+        try {
+            int count = group.size();
+            String[] keys = new String[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = group.get(i).key;
+            }
+            int[] results = new int[count];
+            probe.probeAll(keys, count, results);
+            for (int i = 0; i < count; i++) {
+                complete(group.get(i), results[i]);
+            }
+        } catch (RuntimeException | Error e) {
+            fail(group, e);
+        }
+    }
+
+    private void complete(Query query, int value) {
+        latencies.record(System.nanoTime() - query.enqueued);
+        query.result.complete(value);
+    }
+
+    private static void fail(List<Query> group, Throwable cause) {
+        for (Query query : group) {
+            query.result.completeExceptionally(cause);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor where the runtime has it (Java 21+); looked up
+    // reflectively so this still builds and runs on Java 17, where a fixed platform pool stands in.
+    static ExecutorService newThreadPerTaskExecutor(int fallbackThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads, runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static class Query {
+        GraphNode source;
+        GraphNode target;
+        String probe;
+        String key;
+        long enqueued;
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        Query(GraphNode source, GraphNode target, String probe, String key) {
+            this.source = source;
+            this.target = target;
+            this.probe = probe;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Load generator for QueryServer: concurrent clients issue distance queries whose sources are drawn
+// from a small hot set, then key probes against an ArrayHashProbe, first by calling the structures
+// directly (the unbatched path) and then through the server. Reports throughput and client-side
+// latency percentiles for both, after checking that the server's answers match the direct ones.
+public class QueryServerBenchmark {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_BATCH = 256;
+    private static final int PROBE_KEYS = 1 << 20;
+    private static final int PROBES_PER_CLIENT = 20_000;
+    private static final int CHECKS = 4096;
+
+    // Usage: java QueryServerBenchmark [nodes] [edges] [clients] [queriesPerClient] [hotSources]
+    public static void main(String[] args) throws InterruptedException {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int edges = args.length > 1 ? Integer.parseInt(args[1]) : 25000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int perClient = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int hot = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+
+        GraphNode[] all = new GraphNode[nodes];
+        Graph graph = randomGraph(nodes, edges, all);
+        GraphNode[] sources = new GraphNode[hot];
+        Random random = new Random(42);
+        for (int i = 0; i < hot; i++) {
+            sources[i] = all[random.nextInt(nodes)];
+        }
+        String[] keys = new String[PROBE_KEYS];
+        ArrayHashProbe table = new ArrayHashProbe(PROBE_KEYS / 2);
+        for (int i = 0; i < PROBE_KEYS; i++) {
+            keys[i] = "key-" + i;
+            if (i % 2 == 0) {
+                table.insert(keys[i], i);
+            }
+        }
+        System.out.println("Nodes: " + nodes + ", edges: " + edges + ", clients: " + clients + ", hot sources: "
+                + hot + ", probe keys: " + PROBE_KEYS + ", virtual threads: " + QueryServer.hasVirtualThreads());
+
+        // One untimed pass over each hot source to warm up the JIT.
+        for (GraphNode source : sources) {
+            graph.fastSP(source);
+        }
+
+        try (QueryServer server = new QueryServer(graph, QUEUE_CAPACITY, MAX_BATCH)) {
+            server.registerProbe("table", table);
+            verify(server, graph, table, all, sources, keys);
+        }
+
+        System.out.println("\nDistance queries (" + clients * perClient + "):");
+        LatencyHistogram direct = new LatencyHistogram();
+        double elapsed = run(clients, perClient, direct, r -> {
+            GraphNode target = all[r.nextInt(all.length)];
+            Integer distance = graph.fastSP(sources[r.nextInt(sources.length)]).get(target);
+            return distance == null ? Integer.MAX_VALUE : distance;
+        });
+        report("unbatched", clients * perClient, elapsed, direct);
+
+        LatencyHistogram batched = new LatencyHistogram();
+        try (QueryServer server = new QueryServer(graph, QUEUE_CAPACITY, MAX_BATCH)) {
+            elapsed = run(clients, perClient, batched,
+                    r -> server.distance(sources[r.nextInt(sources.length)], all[r.nextInt(all.length)]).join());
+            report("batched", clients * perClient, elapsed, batched);
+            System.out.println("  " + server);
+        }
+
+        System.out.println("\nKey probes (" + clients * PROBES_PER_CLIENT + "):");
+        direct = new LatencyHistogram();
+        elapsed = run(clients, PROBES_PER_CLIENT, direct, r -> table.lookup(keys[r.nextInt(keys.length)]));
+        report("unbatched", clients * PROBES_PER_CLIENT, elapsed, direct);
+
+        batched = new LatencyHistogram();
+        try (QueryServer server = new QueryServer(graph, QUEUE_CAPACITY, MAX_BATCH)) {
+            server.registerProbe("table", table);
+            elapsed = run(clients, PROBES_PER_CLIENT, batched,
+                    r -> server.probe("table", keys[r.nextInt(keys.length)]).join());
+            report("batched", clients * PROBES_PER_CLIENT, elapsed, batched);
+            System.out.println("  " + server);
+        }
+    }
+
+    interface Client {
+        int query(Random random) throws InterruptedException;
+    }
+
+    // Submits CHECKS queries of each kind before joining any, so they reach the server in batches, and
+    // compares every answer with the direct call.
+    private static void verify(QueryServer server, Graph graph, ArrayHashProbe table, GraphNode[] all,
+            GraphNode[] sources, String[] keys) throws InterruptedException {
+        Random random = new Random(1);
+        GraphNode[] from = new GraphNode[CHECKS];
+        GraphNode[] to = new GraphNode[CHECKS];
+        String[] probed = new String[CHECKS];
+        List<CompletableFuture<Integer>> distances = new ArrayList<>(CHECKS);
+        List<CompletableFuture<Integer>> values = new ArrayList<>(CHECKS);
+        for (int i = 0; i < CHECKS; i++) {
+            from[i] = sources[random.nextInt(sources.length)];
+            to[i] = all[random.nextInt(all.length)];
+            probed[i] = keys[random.nextInt(keys.length)];
+            distances.add(server.distance(from[i], to[i]));
+            values.add(server.probe("table", probed[i]));
+        }
+        for (int i = 0; i < CHECKS; i++) {
+            Integer expected = graph.fastSP(from[i]).get(to[i]);
+            if (distances.get(i).join() != (expected == null ? Integer.MAX_VALUE : expected)) {
+                throw new IllegalStateException("batched distance differs from fastSP for " + from[i].getData()
+                        + " -> " + to[i].getData());
+            }
+            if (values.get(i).join() != table.lookup(probed[i])) {
+                throw new IllegalStateException("batched probe differs from lookup for " + probed[i]);
+            }
+        }
+        System.out.println("Checked " + CHECKS + " batched distances and probes against direct calls.");
+    }
+
+    // Runs every client to completion and returns the wall time in seconds.
+    private static double run(int clients, int perClient, LatencyHistogram latencies, Client client)
+            throws InterruptedException {
+        ExecutorService pool = QueryServer.newThreadPerTaskExecutor(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            long seed = c;
+            pool.execute(() -> {
+                Random random = new Random(seed);
+                try {
+                    for (int i = 0; i < perClient; i++) {
+                        long t0 = System.nanoTime();
+                        client.query(random);
+                        latencies.record(System.nanoTime() - t0);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        return elapsed;
+    }
+
+    private static void report(String name, int queries, double seconds, LatencyHistogram latencies) {
+        System.out.printf("%-10s %10.0f queries/s  %s%n", name, queries / seconds, latencies.summary());
+    }
+
+    private static Graph randomGraph(int nodes, int edges, GraphNode[] all) {
+        Graph graph = new Graph();
+        for (int i = 0; i < nodes; i++) {
+            all[i] = graph.addNode("q" + i);
+        }
+        Random random = new Random(7);
+        GraphNode[] n1 = new GraphNode[edges];
+        GraphNode[] n2 = new GraphNode[edges];
+        int[] weights = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            n1[i] = all[random.nextInt(nodes)];
+            n2[i] = all[random.nextInt(nodes)];
+            weights[i] = 1 + random.nextInt(100);
+        }
+        graph.addEdges(n1, n2, weights);
+        return graph;
+    }
+}
+
+// String -> int open-addressing table with linear probing, standing in for the sibling exercises'
+// hash tables and filters. lookup is the unbatched path; probeAll hashes the whole batch before
+// probing, like StringIntDLeftHashTable.lookupAll. Build it fully before sharing it with the server.
+class ArrayHashProbe implements BatchProbe {
+    static final int MISSING = -1;
+
+    private String[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    ArrayHashProbe(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedKeys) * 2 - 1) * 2;
+        keys = new String[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // No resizing: the load factor is capped at 1/2, which keeps probe runs short.
+    void insert(String key, int value) {
+        int slot = slot(key);
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == null) {
+            if (size == keys.length / 2) {
+                throw new IllegalStateException("table is full");
+            }
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    int lookup(String key) {
+        return find(key, slot(key));
+    }
+
+    @Override
+    public void probeAll(String[] keys, int count, int[] results) {
+        int[] slots = new int[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = slot(keys[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            results[i] = find(keys[i], slots[i]);
+        }
+    }
+
+    private int find(String key, int slot) {
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    private int slot(String key) {
+        // Fibonacci hashing spreads String.hashCode's low-entropy bits across the index.
+        return (key.hashCode() * 0x9E3779B9) >>> (32 - Integer.bitCount(mask)) & mask;
+    }
+}
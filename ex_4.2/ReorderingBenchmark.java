@@ -0,0 +1,143 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+// Times fastSP on the HashMap-based Graph against CompactGraph.shortestPaths and Prim on every
+// CompactGraph.Ordering, over the same sources. Everything is warmed up before the clock starts, and
+// the timed work runs in interleaved rounds, each starting at a different contender, so JIT state and
+// heap growth don't favour whichever ordering happens to run first. The reported times are medians
+// over the rounds.
+public class ReorderingBenchmark {
+    private static final int SOURCES = 20;
+    private static final int MST_RUNS = 5;
+    private static final int ROUNDS = 5;
+
+    // Usage: java ReorderingBenchmark [file.dot | gridSide]
+    public static void main(String[] args) {
+        Graph graph;
+        if (args.length > 0 && args[0].endsWith(".dot")) {
+            graph = Graph.importFromFile(args[0]);
+            if (graph == null) {
+                System.out.println("Error importing graph.");
+                return;
+            }
+        } else {
+            graph = grid(args.length > 0 ? Integer.parseInt(args[0]) : 500);
+        }
+        System.out.println("Nodes: " + graph.getAdjacencyList().size());
+
+        GraphNode[] sources = new GraphNode[SOURCES];
+        Random random = new Random(42);
+        GraphNode[] all = graph.getAdjacencyList().keySet().toArray(new GraphNode[0]);
+        for (int i = 0; i < SOURCES; i++) {
+            sources[i] = all[random.nextInt(all.length)];
+        }
+
+        Map<GraphNode, Integer> expected = graph.fastSP(sources[0]);
+        CompactGraph.Ordering[] orderings = CompactGraph.Ordering.values();
+        CompactGraph[] compacts = new CompactGraph[orderings.length];
+        double[] builds = new double[orderings.length];
+        long[] weights = new long[orderings.length];
+        for (int o = 0; o < orderings.length; o++) {
+            long start = System.nanoTime();
+            compacts[o] = CompactGraph.from(graph, orderings[o]);
+            builds[o] = (System.nanoTime() - start) / 1_000_000.0;
+
+            int[] check = compacts[o].shortestPaths(compacts[o].getId(sources[0]));
+            for (Map.Entry<GraphNode, Integer> entry : expected.entrySet()) {
+                if (check[compacts[o].getId(entry.getKey())] != entry.getValue()) {
+                    throw new IllegalStateException(orderings[o] + ": distance mismatch for " + entry.getKey().getData());
+                }
+            }
+            weights[o] = compacts[o].minimumSpanningForestWeight();
+        }
+
+        // One untimed pass over everything to warm up the JIT before any contender is timed.
+        timeFastSP(graph, sources);
+        for (CompactGraph compact : compacts) {
+            timeShortestPaths(compact, sources);
+            timeMst(compact);
+        }
+
+        // Contender 0 is Graph.fastSP, contender o + 1 is orderings[o].
+        double[][] sp = new double[orderings.length + 1][ROUNDS];
+        double[][] mst = new double[orderings.length][ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int k = 0; k <= orderings.length; k++) {
+                int c = (round + k) % (orderings.length + 1);
+                if (c == 0) {
+                    sp[0][round] = timeFastSP(graph, sources);
+                } else {
+                    sp[c][round] = timeShortestPaths(compacts[c - 1], sources);
+                    mst[c - 1][round] = timeMst(compacts[c - 1]);
+                }
+            }
+        }
+
+        double baseline = median(sp[0]);
+        System.out.println("\nGraph.fastSP: " + baseline + "ms per source (median of " + ROUNDS + " rounds)");
+        for (int o = 0; o < orderings.length; o++) {
+            double median = median(sp[o + 1]);
+            System.out.println("\n" + orderings[o] + " (built in " + builds[o] + "ms):");
+            System.out.println("Shortest paths: " + median + "ms per source, " + baseline / median + "x Graph.fastSP");
+            System.out.println("MST: " + median(mst[o]) + "ms, weight " + weights[o]);
+        }
+    }
+
+    // Milliseconds per source.
+    private static double timeFastSP(Graph graph, GraphNode[] sources) {
+        long start = System.nanoTime();
+        for (GraphNode source : sources) {
+            graph.fastSP(source);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / sources.length;
+    }
+
+    // Milliseconds per source.
+    private static double timeShortestPaths(CompactGraph compact, GraphNode[] sources) {
+        long start = System.nanoTime();
+        for (GraphNode source : sources) {
+            compact.shortestPaths(compact.getId(source));
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / sources.length;
+    }
+
+    // Milliseconds per run.
+    private static double timeMst(CompactGraph compact) {
+        long start = System.nanoTime();
+        for (int i = 0; i < MST_RUNS; i++) {
+            compact.minimumSpanningForestWeight();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MST_RUNS;
+    }
+
+    private static double median(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    // side x side grid with random weights. Labels hash to scattered HashMap positions, which is
+    // exactly the locality problem the orderings fix.
+    private static Graph grid(int side) {
+        Graph graph = new Graph();
+        Random random = new Random(7);
+        GraphNode[] nodes = new GraphNode[side * side];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.addNode("n" + i);
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int i = r * side + c;
+                if (c + 1 < side) {
+                    graph.addEdge(nodes[i], nodes[i + 1], 1 + random.nextInt(100));
+                }
+                if (r + 1 < side) {
+                    graph.addEdge(nodes[i], nodes[i + side], 1 + random.nextInt(100));
+                }
+            }
+        }
+        return graph;
+    }
+}
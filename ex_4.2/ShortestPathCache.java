@@ -0,0 +1,101 @@
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Caches fastSP results per source in LRU order. The bound is on the total number of cached
+// distances (sum of V over cached sources) rather than on sources, so memory stays bounded as the
+// graph grows. Any addNode/removeNode/addEdge/removeEdge on the graph empties the cache on the next
+// query; changes made directly through getAdjacencyList() are not seen.
+public class ShortestPathCache {
+    private Graph graph;
+    private long maxDistances;
+    private LinkedHashMap<GraphNode, Map<GraphNode, Integer>> cache;
+    private long cachedDistances;
+    private int graphModCount;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public ShortestPathCache(Graph graph, long maxDistances) {
+        if (maxDistances <= 0) {
+            throw new IllegalArgumentException("maxDistances must be positive");
+        }
+        this.graph = graph;
+        this.maxDistances = maxDistances;
+        cache = new LinkedHashMap<>(16, 0.75f, true);
+        graphModCount = graph.getModCount();
+    }
+
+    // Distances from source to every node, Integer.MAX_VALUE for unreachable ones. Read-only.
+    public synchronized Map<GraphNode, Integer> distancesFrom(GraphNode source) {
+        if (graph.getModCount() != graphModCount) {
+            invalidate();
+        }
+
+        Map<GraphNode, Integer> distances = cache.get(source);
+        if (distances != null) {
+            hits++;
+            return distances;
+        }
+
+        misses++;
+        distances = Collections.unmodifiableMap(graph.fastSP(source));
+        if (distances.size() > maxDistances) {
+            // Would evict everything else and still not fit.
+            return distances;
+        }
+        cache.put(source, distances);
+        cachedDistances += distances.size();
+
+        Iterator<Map<GraphNode, Integer>> eldest = cache.values().iterator();
+        while (cachedDistances > maxDistances) {
+            cachedDistances -= eldest.next().size();
+            eldest.remove();
+            evictions++;
+        }
+        return distances;
+    }
+
+    public int distance(GraphNode source, GraphNode target) {
+        Integer distance = distancesFrom(source).get(target);
+        return distance == null ? Integer.MAX_VALUE : distance;
+    }
+
+    public synchronized void invalidate() {
+        if (!cache.isEmpty()) {
+            invalidations++;
+        }
+        cache.clear();
+        cachedDistances = 0;
+        graphModCount = graph.getModCount();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ShortestPathCache[sources=" + cache.size() + ", distances=" + cachedDistances + ", hits=" + hits
+                + ", misses=" + misses + ", evictions=" + evictions + ", invalidations=" + invalidations + "]";
+    }
+}
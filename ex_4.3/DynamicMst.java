@@ -0,0 +1,442 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Minimum spanning forest kept up to date under edge insertions, deletions and weight changes,
+// instead of rerunning Graph.mst after every change.
+//
+// The forest lives in a link-cut tree in which every edge is its own tree node sitting between its
+// two endpoints, so a path-maximum query returns the heaviest edge on the tree path between two
+// vertices in O(log n) amortised. An inserted (or cheapened) edge replaces that heaviest edge when it
+// is lighter. Deleting (or making heavier) a tree edge needs the lightest edge reconnecting the two
+// halves; non-tree edges are kept sorted by weight and scanned in that order until one crosses, so
+// that case costs O(k log n) for k non-tree edges examined. Total weight is maintained incrementally.
+//
+// Edges are simple: they are keyed by unordered endpoint pair, and inserting a pair that already
+// exists changes its weight. of() folds a multigraph's parallel edges into the lightest one per pair.
+public class DynamicMst {
+    private static final long VERTEX_WEIGHT = Long.MIN_VALUE;
+
+    // Link-cut tree over nodes 1..size; 0 is the null node.
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private boolean[] reversed;
+    private long[] weight;
+    private int[] maxNode;
+    private int size;
+
+    private Map<GraphNode, Integer> vertices;
+    private List<GraphNode> vertexNodes;
+    private Map<Long, Integer> edgesByPair;
+    private int[] edgeU;
+    private int[] edgeV;
+    private boolean[] inTree;
+    private int[] freeEdges;
+    private int freeCount;
+    private TreeSet<Integer> nonTreeEdges;
+    private long totalWeight;
+    private int treeEdges;
+
+    public DynamicMst() {
+        int capacity = 16;
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        reversed = new boolean[capacity];
+        weight = new long[capacity];
+        maxNode = new int[capacity];
+        edgeU = new int[capacity];
+        edgeV = new int[capacity];
+        inTree = new boolean[capacity];
+        freeEdges = new int[capacity];
+        vertices = new HashMap<>();
+        vertexNodes = new ArrayList<>();
+        vertexNodes.add(null);
+        edgesByPair = new HashMap<>();
+        nonTreeEdges = new TreeSet<>(Comparator.<Integer>comparingLong(e -> weight[e]).thenComparingInt(e -> e));
+    }
+
+    public static DynamicMst of(Graph graph) {
+        DynamicMst mst = new DynamicMst();
+        for (Map.Entry<GraphNode, List<Edge>> entry : graph.getAdjacencyList().entrySet()) {
+            mst.addVertex(entry.getKey());
+            for (Edge edge : entry.getValue()) {
+                mst.insertMinEdge(edge.getEndpoint1(), edge.getEndpoint2(), edge.getWeight());
+            }
+        }
+        return mst;
+    }
+
+    // Graph allows parallel edges; only the lightest of them can be in a minimum spanning forest.
+    private void insertMinEdge(GraphNode n1, GraphNode n2, int w) {
+        Integer existing = edgesByPair.get(pairKey(n1, n2));
+        if (existing == null) {
+            insertEdge(n1, n2, w);
+        } else if (w < weight[existing]) {
+            updateWeight(existing, w);
+        }
+    }
+
+    public void addVertex(GraphNode node) {
+        vertex(node);
+    }
+
+    // Inserts the edge, or changes its weight if the pair is already present.
+    public void insertEdge(GraphNode n1, GraphNode n2, int w) {
+        if (n1.equals(n2)) {
+            // Self-loops never belong to a spanning forest.
+            return;
+        }
+        Integer existing = edgesByPair.get(pairKey(n1, n2));
+        if (existing != null) {
+            updateWeight(existing, w);
+            return;
+        }
+        int u = vertex(n1);
+        int v = vertex(n2);
+        int e = newEdgeNode(u, v, w);
+        edgesByPair.put(pairKey(n1, n2), e);
+        offer(e);
+    }
+
+    public void deleteEdge(GraphNode n1, GraphNode n2) {
+        Integer e = edgesByPair.remove(pairKey(n1, n2));
+        if (e == null) {
+            return;
+        }
+        if (inTree[e]) {
+            removeFromTree(e);
+            reconnect(edgeU[e], edgeV[e], -1);
+        } else {
+            nonTreeEdges.remove(e);
+        }
+        freeEdges[freeCount++] = e;
+    }
+
+    public void updateWeight(GraphNode n1, GraphNode n2, int w) {
+        Integer e = edgesByPair.get(pairKey(n1, n2));
+        if (e == null) {
+            insertEdge(n1, n2, w);
+        } else {
+            updateWeight(e, w);
+        }
+    }
+
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    public int edgeCount() {
+        return treeEdges;
+    }
+
+    public boolean connected(GraphNode n1, GraphNode n2) {
+        Integer u = vertices.get(n1);
+        Integer v = vertices.get(n2);
+        return u != null && v != null && findRoot(u) == findRoot(v);
+    }
+
+    // Materialises the current forest as a Graph, in the same shape Graph.mst returns.
+    public Graph toGraph() {
+        Graph tree = new Graph();
+        for (GraphNode node : vertices.keySet()) {
+            tree.addNode(node.getData());
+        }
+        for (int e : edgesByPair.values()) {
+            if (inTree[e]) {
+                tree.addEdge(vertexNodes.get(edgeU[e]), vertexNodes.get(edgeV[e]), (int) weight[e]);
+            }
+        }
+        return tree;
+    }
+
+    private void updateWeight(int e, int w) {
+        long old = weight[e];
+        if (old == w) {
+            return;
+        }
+        if (!inTree[e]) {
+            nonTreeEdges.remove(e);
+            setWeight(e, w);
+            if (w < old) {
+                offer(e);
+            } else {
+                nonTreeEdges.add(e);
+            }
+            return;
+        }
+
+        setWeight(e, w);
+        totalWeight += w - old;
+        if (w > old) {
+            // A heavier tree edge may now lose to a non-tree edge across the same cut.
+            removeFromTree(e);
+            reconnect(edgeU[e], edgeV[e], e);
+        }
+    }
+
+    // Adds a non-tree edge to the forest if it joins two trees or beats the heaviest edge on its cycle.
+    private void offer(int e) {
+        int u = edgeU[e];
+        int v = edgeV[e];
+        if (findRoot(u) != findRoot(v)) {
+            addToTree(e);
+            return;
+        }
+        int heaviest = pathMax(u, v);
+        if (weight[heaviest] > weight[e]) {
+            removeFromTree(heaviest);
+            nonTreeEdges.add(heaviest);
+            addToTree(e);
+        } else {
+            nonTreeEdges.add(e);
+        }
+    }
+
+    // u and v were just separated. Relinks them with the lightest crossing non-tree edge, or with
+    // candidate (a former tree edge, -1 if none) when nothing lighter crosses.
+    private void reconnect(int u, int v, int candidate) {
+        // Only link/cut/makeRoot move a tree's root, and the scan does none of those until it stops.
+        int rootU = findRoot(u);
+        int rootV = findRoot(v);
+        for (int e : nonTreeEdges) {
+            if (candidate >= 0 && weight[e] >= weight[candidate]) {
+                break;
+            }
+            int a = findRoot(edgeU[e]);
+            int b = findRoot(edgeV[e]);
+            if ((a == rootU && b == rootV) || (a == rootV && b == rootU)) {
+                nonTreeEdges.remove(e);
+                addToTree(e);
+                if (candidate >= 0) {
+                    nonTreeEdges.add(candidate);
+                }
+                return;
+            }
+        }
+        if (candidate >= 0) {
+            addToTree(candidate);
+        }
+    }
+
+    private void addToTree(int e) {
+        link(edgeU[e], e);
+        link(e, edgeV[e]);
+        inTree[e] = true;
+        totalWeight += weight[e];
+        treeEdges++;
+    }
+
+    private void removeFromTree(int e) {
+        cut(edgeU[e], e);
+        cut(e, edgeV[e]);
+        inTree[e] = false;
+        totalWeight -= weight[e];
+        treeEdges--;
+    }
+
+    private void setWeight(int e, long w) {
+        access(e);
+        splay(e);
+        weight[e] = w;
+        pushUp(e);
+    }
+
+    private int vertex(GraphNode node) {
+        Integer id = vertices.get(node);
+        if (id == null) {
+            id = newNode(VERTEX_WEIGHT);
+            vertices.put(node, id);
+            while (vertexNodes.size() <= id) {
+                vertexNodes.add(null);
+            }
+            vertexNodes.set(id, node);
+        }
+        return id;
+    }
+
+    private int newEdgeNode(int u, int v, int w) {
+        int e;
+        if (freeCount > 0) {
+            e = freeEdges[--freeCount];
+            left[e] = right[e] = parent[e] = 0;
+            reversed[e] = false;
+            weight[e] = w;
+            maxNode[e] = e;
+        } else {
+            e = newNode(w);
+        }
+        edgeU[e] = u;
+        edgeV[e] = v;
+        inTree[e] = false;
+        return e;
+    }
+
+    private int newNode(long w) {
+        int x = ++size;
+        if (x == left.length) {
+            int capacity = left.length * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            reversed = Arrays.copyOf(reversed, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            maxNode = Arrays.copyOf(maxNode, capacity);
+            edgeU = Arrays.copyOf(edgeU, capacity);
+            edgeV = Arrays.copyOf(edgeV, capacity);
+            inTree = Arrays.copyOf(inTree, capacity);
+            freeEdges = Arrays.copyOf(freeEdges, capacity);
+        }
+        weight[x] = w;
+        maxNode[x] = x;
+        return x;
+    }
+
+    private static long pairKey(GraphNode n1, GraphNode n2) {
+        int a = Math.min(n1.getId(), n2.getId());
+        int b = Math.max(n1.getId(), n2.getId());
+        return (long) a << 32 | b;
+    }
+
+    // ---- link-cut tree ----
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == 0 || (left[p] != x && right[p] != x);
+    }
+
+    private void pushUp(int x) {
+        int best = x;
+        if (left[x] != 0 && weight[maxNode[left[x]]] > weight[best]) {
+            best = maxNode[left[x]];
+        }
+        if (right[x] != 0 && weight[maxNode[right[x]]] > weight[best]) {
+            best = maxNode[right[x]];
+        }
+        maxNode[x] = best;
+    }
+
+    private void pushDown(int x) {
+        if (reversed[x]) {
+            int tmp = left[x];
+            left[x] = right[x];
+            right[x] = tmp;
+            if (left[x] != 0) {
+                reversed[left[x]] ^= true;
+            }
+            if (right[x] != 0) {
+                reversed[right[x]] ^= true;
+            }
+            reversed[x] = false;
+        }
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        if (!isSplayRoot(p)) {
+            if (left[g] == p) {
+                left[g] = x;
+            } else {
+                right[g] = x;
+            }
+        }
+        parent[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != 0) {
+                parent[right[x]] = p;
+            }
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != 0) {
+                parent[left[x]] = p;
+            }
+            left[x] = p;
+        }
+        parent[p] = x;
+        pushUp(p);
+        pushUp(x);
+    }
+
+    private int[] pending = new int[16];
+
+    private void splay(int x) {
+        int depth = 0;
+        pending[depth++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y]) {
+            if (depth == pending.length) {
+                pending = Arrays.copyOf(pending, depth * 2);
+            }
+            pending[depth++] = parent[y];
+        }
+        while (depth > 0) {
+            pushDown(pending[--depth]);
+        }
+
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void access(int x) {
+        int last = 0;
+        for (int y = x; y != 0; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            pushUp(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        reversed[x] ^= true;
+        pushDown(x);
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        int r = x;
+        pushDown(r);
+        while (left[r] != 0) {
+            r = left[r];
+            pushDown(r);
+        }
+        splay(r);
+        return r;
+    }
+
+    private void link(int x, int y) {
+        makeRoot(x);
+        parent[x] = y;
+    }
+
+    // x and y must be adjacent in the represented tree.
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        left[y] = 0;
+        parent[x] = 0;
+        pushUp(y);
+    }
+
+    private int pathMax(int u, int v) {
+        makeRoot(u);
+        access(v);
+        return maxNode[v];
+    }
+}
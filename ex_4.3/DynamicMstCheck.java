@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Randomised check of DynamicMst. Every trial runs a stream of inserts, deletes and weight changes
+// and compares total weight and edge count with a Kruskal recomputation after every step. At the end
+// of the trial it seeds DynamicMst.of from a multigraph with the same edges plus heavier parallel
+// copies and self-loops, and compares with Graph.mst on that graph.
+public class DynamicMstCheck {
+    private static final int TRIALS = 200;
+    private static final int STEPS = 300;
+
+    // Usage: java DynamicMstCheck [seed]
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 7;
+        Random random = new Random(seed);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 2 + random.nextInt(25);
+            GraphNode[] nodes = new GraphNode[n];
+            for (int i = 0; i < n; i++) {
+                nodes[i] = new GraphNode("m" + i);
+            }
+            DynamicMst mst = new DynamicMst();
+            for (GraphNode node : nodes) {
+                mst.addVertex(node);
+            }
+
+            // Reference edge set: pair key -> {x, y, weight}.
+            Map<Long, int[]> edges = new HashMap<>();
+            for (int step = 0; step < STEPS; step++) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n - 1);
+                if (y >= x) {
+                    y++;
+                }
+                long key = (long) Math.min(x, y) << 32 | Math.max(x, y);
+                // Negative weights too: nothing in DynamicMst should assume they are positive.
+                int w = random.nextInt(50) - 10;
+                switch (random.nextInt(4)) {
+                    case 0:
+                    case 1:
+                        mst.insertEdge(nodes[x], nodes[y], w);
+                        edges.put(key, new int[] {x, y, w});
+                        break;
+                    case 2:
+                        mst.deleteEdge(nodes[x], nodes[y]);
+                        edges.remove(key);
+                        break;
+                    default:
+                        mst.updateWeight(nodes[x], nodes[y], w);
+                        edges.put(key, new int[] {x, y, w});
+                        break;
+                }
+
+                long[] expected = kruskal(n, edges.values());
+                if (mst.totalWeight() != expected[0] || mst.edgeCount() != expected[1]) {
+                    throw new IllegalStateException("trial " + trial + ", step " + step + ": weight "
+                            + mst.totalWeight() + " / " + mst.edgeCount() + " edges, Kruskal gives " + expected[0]
+                            + " / " + expected[1]);
+                }
+                if (treeWeight(mst.toGraph()) != expected[0]) {
+                    throw new IllegalStateException("trial " + trial + ", step " + step + ": toGraph disagrees");
+                }
+            }
+
+            Graph multigraph = new Graph();
+            for (GraphNode node : nodes) {
+                multigraph.addNode(node.getData());
+            }
+            for (int[] edge : edges.values()) {
+                // The heavier parallel copy goes in before or after the real edge, so neither the first
+                // nor the last listing of a pair is always the lightest.
+                int heavier = edge[2] + 1 + random.nextInt(5);
+                boolean heavierFirst = random.nextBoolean();
+                multigraph.addEdge(nodes[edge[0]], nodes[edge[1]], heavierFirst ? heavier : edge[2]);
+                multigraph.addEdge(nodes[edge[0]], nodes[edge[1]], heavierFirst ? edge[2] : heavier);
+                multigraph.addEdge(nodes[edge[0]], nodes[edge[0]], edge[2] - 100);
+            }
+            long seeded = DynamicMst.of(multigraph).totalWeight();
+            long rerun = treeWeight(Graph.mst(multigraph));
+            if (seeded != rerun) {
+                throw new IllegalStateException("trial " + trial + ": DynamicMst.of gives " + seeded
+                        + ", Graph.mst gives " + rerun);
+            }
+        }
+        System.out.println("DynamicMst matched Kruskal after every step of " + TRIALS + " random streams of "
+                + STEPS + " updates, and Graph.mst on their multigraphs.");
+    }
+
+    // {total weight, edge count} of a minimum spanning forest.
+    private static long[] kruskal(int n, Iterable<int[]> edges) {
+        List<int[]> sorted = new ArrayList<>();
+        for (int[] edge : edges) {
+            sorted.add(edge);
+        }
+        sorted.sort((a, b) -> Integer.compare(a[2], b[2]));
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        long weight = 0;
+        long count = 0;
+        for (int[] edge : sorted) {
+            int a = find(parent, edge[0]);
+            int b = find(parent, edge[1]);
+            if (a != b) {
+                parent[a] = b;
+                weight += edge[2];
+                count++;
+            }
+        }
+        return new long[] {weight, count};
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    // Every edge is listed under both endpoints.
+    private static long treeWeight(Graph tree) {
+        long weight = 0;
+        for (List<Edge> list : tree.getAdjacencyList().values()) {
+            for (Edge edge : list) {
+                weight += edge.getWeight();
+            }
+        }
+        return weight / 2;
+    }
+}
@@ -2,6 +2,8 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class Graph {
@@ -26,6 +28,8 @@ public class Graph {
 
   
     public static Graph mst(Graph graph) {
+        MstEvent event = new MstEvent();
+        event.begin();
       
         PriorityQueue<Edge> edges = new PriorityQueue<>(Comparator.comparingInt(Edge::getWeight));
    
@@ -44,6 +48,8 @@ public class Graph {
             tree.addNode(node.getData());
         }
 
+        int candidates = edges.size();
+        long weight = 0;
         while (!edges.isEmpty()) {
             Edge edge = edges.poll();
 
@@ -52,14 +58,28 @@ public class Graph {
 
             if (tree.detectCycles()) {
                 tree.removeEdge(edge);
+            } else {
+                weight += edge.getWeight();
             }
         }
 
+        if (MstMetrics.ENABLED) {
+            MstMetrics.MST_BUILDS.increment();
+        }
+        if (event.shouldCommit()) {
+            event.nodes = graph.adjacencyList.size();
+            event.edges = candidates;
+            event.weight = weight;
+            event.commit();
+        }
         return tree;
     }
 
    
     private boolean detectCycles() {
+        if (MstMetrics.ENABLED) {
+            MstMetrics.CYCLE_CHECKS.increment();
+        }
         DisjointSet ds = new DisjointSet();
         ds.makeSet(adjacencyList.keySet());
 
@@ -90,6 +110,10 @@ public class Graph {
         adjacencyList = new HashMap<>();
     }
 
+    public Map<GraphNode, List<Edge>> getAdjacencyList() {
+        return adjacencyList;
+    }
+
     public void printGraph() {
         for (GraphNode node : adjacencyList.keySet()) {
             System.out.print(node.getData() + " -> ");
@@ -157,6 +181,19 @@ public class Graph {
 
   
     public static Graph importFromFile(String filename) {
+        ImportEvent event = new ImportEvent();
+        event.begin();
+        Graph graph = readFile(filename);
+        if (event.shouldCommit()) {
+            event.file = filename;
+            event.nodes = graph == null ? 0 : graph.adjacencyList.size();
+            event.success = graph != null;
+            event.commit();
+        }
+        return graph;
+    }
+
+    private static Graph readFile(String filename) {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line = reader.readLine();
             if (line == null || !line.startsWith("strict graph")) {
@@ -205,27 +242,59 @@ public class Graph {
 
 class GraphNode {
     private String data;
+    private int id;
 
+    // Hashes the label once, here, to look up its id; reuse the nodes a Graph hands out rather than
+    // constructing throwaway ones for lookups.
     public GraphNode(String data) {
         this.data = data;
+        this.id = LabelDictionary.intern(data);
     }
 
     public String getData() {
         return data;
     }
 
+    // Id shared by every GraphNode with this label. Ids are dense across the whole process, not per
+    // Graph, so a graph's ids can be sparse if other graphs were loaded before it.
+    public int getId() {
+        return id;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null || getClass() != obj.getClass()) {
             return false;
         }
         GraphNode other = (GraphNode) obj;
-        return data.equals(other.data);
+        return id == other.id;
     }
 
     @Override
     public int hashCode() {
-        return data.hashCode();
+        return id;
+    }
+}
+
+// Process-wide label -> id table, shared so that nodes from different Graph instances with the same
+// label stay equal (Graph.mst and DynamicMst.toGraph build new graphs and rely on that). Ids are
+// handed out densely from 0 in first-seen order and never reused or dropped, so the table grows with
+// every distinct label the process has seen: a long-running process that loads many unrelated graphs
+// keeps all of their labels.
+class LabelDictionary {
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    public static int intern(String label) {
+        Integer id = ids.get(label);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(label, l -> nextId.getAndIncrement());
+    }
+
+    public static int size() {
+        return nextId.get();
     }
 }
 
@@ -253,13 +322,15 @@ class Edge {
     }
 
     public boolean hasEndpoint(GraphNode node) {
-        return endpoint1.equals(node) || endpoint2.equals(node);
+        int id = node.getId();
+        return endpoint1.getId() == id || endpoint2.getId() == id;
     }
 
     public GraphNode getOtherEndpoint(GraphNode node) {
-        if (endpoint1.equals(node)) {
+        int id = node.getId();
+        if (endpoint1.getId() == id) {
             return endpoint2;
-        } else if (endpoint2.equals(node)) {
+        } else if (endpoint2.getId() == id) {
             return endpoint1;
         } else {
             return null;
@@ -273,8 +344,11 @@ class Edge {
         }
         Edge other = (Edge) obj;
 
-        boolean endpointsMatch = (endpoint1.equals(other.endpoint1) && endpoint2.equals(other.endpoint2))
-                || (endpoint1.equals(other.endpoint2) && endpoint2.equals(other.endpoint1));
+        int a1 = endpoint1.getId();
+        int b1 = endpoint2.getId();
+        int a2 = other.endpoint1.getId();
+        int b2 = other.endpoint2.getId();
+        boolean endpointsMatch = (a1 == a2 && b1 == b2) || (a1 == b2 && b1 == a2);
         boolean weightsMatch = weight == other.weight;
 
         return endpointsMatch && weightsMatch;
@@ -297,6 +371,9 @@ class DisjointSet {
     }
 
     public GraphNode find(GraphNode node) {
+        if (MstMetrics.ENABLED) {
+            MstMetrics.UNION_FIND_FINDS.increment();
+        }
        
         if (parentMap.get(node) == node) {
             return node;
@@ -306,6 +383,9 @@ class DisjointSet {
     }
 
     public void union(GraphNode node1, GraphNode node2) {
+        if (MstMetrics.ENABLED) {
+            MstMetrics.UNION_FIND_UNIONS.increment();
+        }
       
         GraphNode parent1 = find(node1);
         GraphNode parent2 = find(node2);
@@ -0,0 +1,65 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Counters and JFR events for the MST code, enabled with -Dmetrics.enabled=true.
+public final class MstMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("metrics.enabled");
+
+    static final LongAdder MST_BUILDS = new LongAdder();
+    static final LongAdder CYCLE_CHECKS = new LongAdder();
+    static final LongAdder UNION_FIND_FINDS = new LongAdder();
+    static final LongAdder UNION_FIND_UNIONS = new LongAdder();
+
+    private MstMetrics() {
+    }
+
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("mst.builds", MST_BUILDS.sum());
+        snapshot.put("mst.cycleChecks", CYCLE_CHECKS.sum());
+        snapshot.put("unionFind.finds", UNION_FIND_FINDS.sum());
+        snapshot.put("unionFind.unions", UNION_FIND_UNIONS.sum());
+        return snapshot;
+    }
+
+    public static void reset() {
+        MST_BUILDS.reset();
+        CYCLE_CHECKS.reset();
+        UNION_FIND_FINDS.reset();
+        UNION_FIND_UNIONS.reset();
+    }
+}
+
+@Name("graph.Import")
+@Label("Graph Import")
+@Category("Graph")
+class ImportEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Nodes")
+    int nodes;
+
+    @Label("Success")
+    boolean success;
+}
+
+@Name("graph.Mst")
+@Label("Minimum Spanning Tree Build")
+@Category("Graph")
+class MstEvent extends Event {
+    @Label("Nodes")
+    int nodes;
+
+    @Label("Candidate Edges")
+    int edges;
+
+    @Label("Tree Weight")
+    long weight;
+}
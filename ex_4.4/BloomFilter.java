@@ -1,13 +1,186 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 public class BloomFilter {
+    static final long DEFAULT_SEED = 0x9E3779B97F4A7C15L;
+
+    // Snapshot layout, little-endian: magic, version, numBits, numHashes (ints), seed, setBits (longs),
+    // then the raw bit words. The header is 32 bytes so the words start 8-byte aligned.
+    static final int MAGIC = 0x424C4D46; // "BLMF"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
     private Map<Vertex, Set<Connection>> adjacencyMap;
+    private long[] bits;
+    private int numBits;
+    private int numHashes;
+    private long seed;
+    private long setBits;
 
     public BloomFilter() {
+        this(1 << 16, 3);
+    }
+
+    public BloomFilter(int numBits, int numHashes) {
+        this(numBits, numHashes, DEFAULT_SEED);
+    }
+
+    public BloomFilter(int numBits, int numHashes, long seed) {
+        if (numBits <= 0 || numHashes <= 0) {
+            throw new IllegalArgumentException("numBits and numHashes must be positive");
+        }
         adjacencyMap = new HashMap<>();
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.seed = seed;
+        bits = new long[(numBits + 63) >>> 6];
+    }
+
+    // Sizes the filter for the expected number of keys at the target false-positive rate.
+    public static BloomFilter create(int expectedInsertions, double fpp) {
+        int numBits = optimalNumBits(expectedInsertions, fpp);
+        return new BloomFilter(numBits, optimalNumHashes(expectedInsertions, numBits));
+    }
+
+    static int optimalNumBits(long n, double p) {
+        double m = -n * Math.log(p) / (Math.log(2) * Math.log(2));
+        return (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, Math.ceil(m)));
+    }
+
+    static int optimalNumHashes(long n, long m) {
+        return Math.max(1, (int) Math.round((double) m / Math.max(1, n) * Math.log(2)));
+    }
+
+    public void add(String key) {
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.ADDS.increment();
+        }
+        long h = hash64(key, seed);
+        for (int i = 0; i < numHashes; i++) {
+            int index = index(h, i, numBits);
+            long word = bits[index >>> 6];
+            if ((word & (1L << index)) == 0) {
+                bits[index >>> 6] = word | (1L << index);
+                setBits++;
+            }
+        }
+    }
+
+    public boolean mightContain(String key) {
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.LOOKUPS.increment();
+        }
+        long h = hash64(key, seed);
+        for (int i = 0; i < numHashes; i++) {
+            int index = index(h, i, numBits);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.POSITIVES.increment();
+        }
+        return true;
+    }
+
+    // Probability of a false positive given the current fill, (setBits / numBits)^k.
+    public double expectedFpp() {
+        return Math.pow((double) setBits / numBits, numHashes);
+    }
+
+    public long bitCount() {
+        return setBits;
+    }
+
+    // Writes to a temporary file next to path and renames it over path once it is on disk. A
+    // MappedBloomFilter still open on the old snapshot keeps its mapping of the old file, which
+    // truncating in place would pull out from under it (SIGBUS on the next lookup).
+    public void writeTo(Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            writeSnapshot(tmp);
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    private void writeSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(numBits).putInt(numHashes).putLong(seed).putLong(setBits);
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (long word : bits) {
+                if (!chunk.hasRemaining()) {
+                    chunk.flip();
+                    writeFully(channel, chunk);
+                    chunk.clear();
+                }
+                chunk.putLong(word);
+            }
+            chunk.flip();
+            writeFully(channel, chunk);
+            channel.force(true);
+        }
+    }
+
+    public static BloomFilter readFrom(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            readHeader(buffer, path);
+            BloomFilter filter = new BloomFilter(buffer.getInt(8), buffer.getInt(12), buffer.getLong(16));
+            filter.setBits = buffer.getLong(24);
+            buffer.position(HEADER_BYTES);
+            buffer.asLongBuffer().get(filter.bits);
+            return filter;
+        }
+    }
+
+    // Validates magic, version and length, leaving the header fields in place for the caller to read.
+    static void readHeader(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a Bloom filter snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(path + " has unsupported snapshot version " + buffer.getInt(4));
+        }
+        long words = (buffer.getInt(8) + 63L) >>> 6;
+        if (buffer.getInt(8) <= 0 || buffer.getInt(12) <= 0 || buffer.limit() != HEADER_BYTES + words * 8) {
+            throw new IOException(path + " is truncated or corrupt");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public int getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public long getSeed() {
+        return seed;
     }
 
     public void addEdge(Vertex vertex1, Vertex vertex2, int weight) {
@@ -38,8 +211,30 @@ public class BloomFilter {
         }
     }
 
+    // Double hashing (Kirsch-Mitzenmacher): the i-th index is h1 + i * h2 over one 64-bit hash.
     public int hash(String s, int i) {
-        return 0;
+        return index(hash64(s, seed), i, numBits);
+    }
+
+    static int index(long h, int i, int numBits) {
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        return ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finished with the murmur3 fmix64 avalanche.
+    static long hash64(String s, long seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
     }
 }
 
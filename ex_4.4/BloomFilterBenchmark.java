@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BloomFilterBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int BATCH = 1024;
+    private static final int BATCHES = 1000;
+
+    // Usage: java BloomFilterBenchmark [keys] [fpp]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        double fpp = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+
+        String[] present = keys("key-", n);
+        String[] absent = keys("absent-", n);
+
+        BloomFilter plain = BloomFilter.create(n, fpp);
+        BlockedBloomFilter blocked = BlockedBloomFilter.create(n, fpp);
+        for (String key : present) {
+            plain.add(key);
+            blocked.add(key);
+        }
+
+        System.out.println("Keys: " + n + ", target FPP: " + fpp);
+        System.out.println("\nStandard filter (" + plain.getNumBits() / 8 / 1024 + " KiB, k = " + plain.getNumHashes() + "):");
+        report(measureFpp(plain::mightContain, absent), plain.expectedFpp(), measureLookups(plain::mightContain, present, absent));
+
+        System.out.println("\nBlocked filter (" + blocked.getNumBits() / 8 / 1024 + " KiB, k = 8):");
+        report(measureFpp(blocked::mightContain, absent), blocked.expectedFpp(), measureLookups(blocked::mightContain, present, absent));
+
+        System.out.println("\nBlocked filter, batches of " + BATCH + " random keys:");
+        measureBatches(blocked, present, absent);
+    }
+
+    interface Probe {
+        boolean mightContain(String key);
+    }
+
+    private static String[] keys(String prefix, int n) {
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = prefix + i;
+        }
+        return keys;
+    }
+
+    private static double measureFpp(Probe probe, String[] absent) {
+        int falsePositives = 0;
+        for (String key : absent) {
+            if (probe.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / absent.length;
+    }
+
+    // Alternates hits and misses so neither branch outcome is perfectly predictable.
+    private static List<Double> measureLookups(Probe probe, String[] present, String[] absent) {
+        List<Double> rates = new ArrayList<>(ROUNDS);
+        int sink = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < present.length; i++) {
+                if (probe.mightContain(present[i])) {
+                    sink++;
+                }
+                if (probe.mightContain(absent[i])) {
+                    sink++;
+                }
+            }
+            long end = System.nanoTime();
+            if (round > 0) {
+                // Round 0 is warm-up.
+                rates.add(2.0 * present.length / ((end - start) / 1_000_000_000.0) / 1_000_000);
+            }
+        }
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return rates;
+    }
+
+    // mightContainAll against a mightContain loop. Every timed batch draws fresh random keys, so neither
+    // path finds the blocks the other one just pulled into cache.
+    private static void measureBatches(BlockedBloomFilter filter, String[] present, String[] absent) {
+        Random random = new Random(42);
+        String[] batch = new String[BATCH];
+        boolean[] results = new boolean[BATCH];
+        for (int b = 0; b < BATCHES; b++) {
+            fill(batch, random, present, absent);
+            filter.mightContainAll(batch, BATCH, results);
+            for (int i = 0; i < BATCH; i++) {
+                if (results[i] != filter.mightContain(batch[i])) {
+                    throw new IllegalStateException("mightContainAll disagrees with mightContain for " + batch[i]);
+                }
+            }
+        }
+
+        long single = 0;
+        long batched = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            for (int b = 0; b < BATCHES; b++) {
+                fill(batch, random, present, absent);
+                long start = System.nanoTime();
+                for (int i = 0; i < BATCH; i++) {
+                    results[i] = filter.mightContain(batch[i]);
+                }
+                long middle = System.nanoTime();
+                fill(batch, random, present, absent);
+                long resume = System.nanoTime();
+                filter.mightContainAll(batch, BATCH, results);
+                long end = System.nanoTime();
+                if (round > 0) {
+                    // Round 0 is warm-up.
+                    single += middle - start;
+                    batched += end - resume;
+                }
+            }
+        }
+        double keys = (double) ROUNDS * BATCHES * BATCH;
+        System.out.println("mightContain: " + single / keys + " ns/key");
+        System.out.println("mightContainAll: " + batched / keys + " ns/key");
+    }
+
+    private static void fill(String[] batch, Random random, String[] present, String[] absent) {
+        for (int i = 0; i < batch.length; i++) {
+            String[] source = random.nextBoolean() ? present : absent;
+            batch[i] = source[random.nextInt(source.length)];
+        }
+    }
+
+    private static void report(double measuredFpp, double estimatedFpp, List<Double> rates) {
+        double avg = 0;
+        double max = 0;
+        double min = Double.MAX_VALUE;
+        for (double rate : rates) {
+            avg += rate;
+            max = Math.max(max, rate);
+            min = Math.min(min, rate);
+        }
+        avg /= rates.size();
+
+        System.out.println("Measured FPP: " + measuredFpp);
+        System.out.println("Estimated FPP: " + estimatedFpp);
+        System.out.println("Average lookups: " + avg + " M/s");
+        System.out.println("Max lookups: " + max + " M/s");
+        System.out.println("Min lookups: " + min + " M/s");
+    }
+}
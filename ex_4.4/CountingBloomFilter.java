@@ -0,0 +1,133 @@
+// Bloom filter with 4-bit counters instead of bits, packed sixteen to a long, so keys can be removed.
+// A counter that reaches 15 sticks there: it can no longer be decremented safely, so it never is.
+public class CountingBloomFilter {
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long MAX_COUNT = 15;
+
+    private long[] counters;
+    private int numCounters;
+    private int numHashes;
+    private long seed;
+    private long nonZero;
+    private long saturated;
+
+    public CountingBloomFilter(int numCounters, int numHashes) {
+        this(numCounters, numHashes, BloomFilter.DEFAULT_SEED);
+    }
+
+    public CountingBloomFilter(int numCounters, int numHashes, long seed) {
+        if (numCounters <= 0 || numHashes <= 0) {
+            throw new IllegalArgumentException("numCounters and numHashes must be positive");
+        }
+        this.numCounters = numCounters;
+        this.numHashes = numHashes;
+        this.seed = seed;
+        counters = new long[(numCounters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD];
+    }
+
+    public static CountingBloomFilter create(int expectedInsertions, double fpp) {
+        int numCounters = BloomFilter.optimalNumBits(expectedInsertions, fpp);
+        return new CountingBloomFilter(numCounters, BloomFilter.optimalNumHashes(expectedInsertions, numCounters));
+    }
+
+    public void add(String key) {
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.ADDS.increment();
+        }
+        long h = BloomFilter.hash64(key, seed);
+        for (int i = 0; i < numHashes; i++) {
+            int index = BloomFilter.index(h, i, numCounters);
+            long count = get(index);
+            if (count == MAX_COUNT) {
+                continue;
+            }
+            if (count == 0) {
+                nonZero++;
+            } else if (count == MAX_COUNT - 1) {
+                saturated++;
+            }
+            set(index, count + 1);
+        }
+    }
+
+    // Removes one occurrence of the key. Returns false, leaving the filter untouched, if the key
+    // was definitely not present. Removing a key that was never added can cause false negatives.
+    public boolean remove(String key) {
+        if (!mightContain(key)) {
+            return false;
+        }
+        long h = BloomFilter.hash64(key, seed);
+        for (int i = 0; i < numHashes; i++) {
+            int index = BloomFilter.index(h, i, numCounters);
+            long count = get(index);
+            if (count == MAX_COUNT || count == 0) {
+                // Saturated counters stay put; zero only happens when k indices of one key collide.
+                continue;
+            }
+            if (count == 1) {
+                nonZero--;
+            }
+            set(index, count - 1);
+        }
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.REMOVES.increment();
+        }
+        return true;
+    }
+
+    public boolean mightContain(String key) {
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.LOOKUPS.increment();
+        }
+        long h = BloomFilter.hash64(key, seed);
+        for (int i = 0; i < numHashes; i++) {
+            if (get(BloomFilter.index(h, i, numCounters)) == 0) {
+                return false;
+            }
+        }
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.POSITIVES.increment();
+        }
+        return true;
+    }
+
+    public int count(String key) {
+        long h = BloomFilter.hash64(key, seed);
+        long min = MAX_COUNT;
+        for (int i = 0; i < numHashes; i++) {
+            min = Math.min(min, get(BloomFilter.index(h, i, numCounters)));
+        }
+        return (int) min;
+    }
+
+    // Same estimate as BloomFilter, with non-zero counters standing in for set bits.
+    public double expectedFpp() {
+        return Math.pow((double) nonZero / numCounters, numHashes);
+    }
+
+    public long nonZeroCounters() {
+        return nonZero;
+    }
+
+    public long saturatedCounters() {
+        return saturated;
+    }
+
+    public int getNumCounters() {
+        return numCounters;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    private long get(int index) {
+        return (counters[index >>> 4] >>> ((index & 15) << 2)) & 0xF;
+    }
+
+    private void set(int index, long count) {
+        int shift = (index & 15) << 2;
+        int word = index >>> 4;
+        counters[word] = (counters[word] & ~(0xFL << shift)) | (count << shift);
+    }
+}
@@ -0,0 +1,40 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters shared by the Bloom filter variants, enabled with -Dmetrics.enabled=true.
+public final class FilterMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("metrics.enabled");
+
+    static final LongAdder ADDS = new LongAdder();
+    static final LongAdder REMOVES = new LongAdder();
+    static final LongAdder LOOKUPS = new LongAdder();
+    static final LongAdder POSITIVES = new LongAdder();
+
+    private FilterMetrics() {
+    }
+
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("filter.adds", ADDS.sum());
+        snapshot.put("filter.removes", REMOVES.sum());
+        snapshot.put("filter.lookups", LOOKUPS.sum());
+        snapshot.put("filter.positives", POSITIVES.sum());
+        return snapshot;
+    }
+
+    public static void reset() {
+        ADDS.reset();
+        REMOVES.reset();
+        LOOKUPS.reset();
+        POSITIVES.reset();
+    }
+
+    static boolean recordLookup(boolean positive) {
+        LOOKUPS.increment();
+        if (positive) {
+            POSITIVES.increment();
+        }
+        return positive;
+    }
+}
@@ -0,0 +1,74 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read-only view of a snapshot written by BloomFilter.writeTo. Lookups read the bit words straight
+// from the memory-mapped file, so opening costs nothing beyond the header check and every process
+// that maps the same file shares the same page-cache pages.
+public class MappedBloomFilter {
+    private MappedByteBuffer buffer;
+    private int numBits;
+    private int numHashes;
+    private long seed;
+    private long setBits;
+
+    private MappedBloomFilter(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        numBits = buffer.getInt(8);
+        numHashes = buffer.getInt(12);
+        seed = buffer.getLong(16);
+        setBits = buffer.getLong(24);
+    }
+
+    public static MappedBloomFilter open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            BloomFilter.readHeader(buffer, path);
+            return new MappedBloomFilter(buffer);
+        }
+    }
+
+    public boolean mightContain(String key) {
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.LOOKUPS.increment();
+        }
+        long h = BloomFilter.hash64(key, seed);
+        for (int i = 0; i < numHashes; i++) {
+            int index = BloomFilter.index(h, i, numBits);
+            long word = buffer.getLong(BloomFilter.HEADER_BYTES + ((index >>> 6) << 3));
+            if ((word & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        if (FilterMetrics.ENABLED) {
+            FilterMetrics.POSITIVES.increment();
+        }
+        return true;
+    }
+
+    // Faults the whole file into memory up front instead of page by page on first lookups.
+    public void preload() {
+        buffer.load();
+    }
+
+    public double expectedFpp() {
+        return Math.pow((double) setBits / numBits, numHashes);
+    }
+
+    public int getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
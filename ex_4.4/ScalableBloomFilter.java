@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Scalable Bloom filter (Almeida et al.): a chain of standard filters where each new stage is
+// GROWTH times larger and has TIGHTENING times the error of the previous one. The per-stage error
+// rates form a geometric series, so the compound false-positive rate stays below the target.
+public class ScalableBloomFilter {
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private List<BloomFilter> stages;
+    private double fpp;
+    private long nextCapacity;
+    private double nextFpp;
+    private long stageCapacity;
+    private long stageCount;
+    private long count;
+
+    public ScalableBloomFilter(int initialCapacity, double fpp) {
+        if (initialCapacity <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("initialCapacity must be positive and fpp in (0, 1)");
+        }
+        this.fpp = fpp;
+        stages = new ArrayList<>();
+        nextCapacity = initialCapacity;
+        nextFpp = fpp * (1 - TIGHTENING);
+        addStage();
+    }
+
+    public void add(String key) {
+        if (mightContain(key)) {
+            return;
+        }
+        if (stageCount >= stageCapacity) {
+            addStage();
+        }
+        stages.get(stages.size() - 1).add(key);
+        stageCount++;
+        count++;
+    }
+
+    public boolean mightContain(String key) {
+        // Newest stages first: they hold most of the keys once the filter has grown.
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            if (stages.get(i).mightContain(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 1 - product of (1 - stage FPP), using each stage's live fill-based estimate.
+    public double expectedFpp() {
+        double miss = 1;
+        for (BloomFilter stage : stages) {
+            miss *= 1 - stage.expectedFpp();
+        }
+        return 1 - miss;
+    }
+
+    public double getTargetFpp() {
+        return fpp;
+    }
+
+    public int stageCount() {
+        return stages.size();
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public long bitSize() {
+        long bits = 0;
+        for (BloomFilter stage : stages) {
+            bits += stage.getNumBits();
+        }
+        return bits;
+    }
+
+    private void addStage() {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, nextCapacity);
+        stages.add(BloomFilter.create(capacity, nextFpp));
+        stageCapacity = capacity;
+        stageCount = 0;
+        nextCapacity *= GROWTH;
+        nextFpp *= TIGHTENING;
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread-safe String -> int d-left table. Each bucket is an immutable Entry[] published through an
+// AtomicReferenceArray, so lookup is a volatile read of two arrays and never blocks. Writers take the
+// stripe locks of both candidate buckets (lower stripe first, to avoid deadlock) and then swap in a
+// copied array, which makes the "compare loads, append to the lighter bucket" step atomic.
+public class ConcurrentDLeftHashTable {
+    public static final int NO_VALUE = LongIntDLeftHashTable.NO_VALUE;
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private int buckets;
+    private AtomicReferenceArray<Entry[]> table;
+    private ReentrantLock[] stripes;
+
+    private static class Entry {
+        final String key;
+        final int value;
+
+        Entry(String key, int value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    public ConcurrentDLeftHashTable(int buckets) {
+        this(buckets, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentDLeftHashTable(int buckets, int numStripes) {
+        if (buckets <= 0 || numStripes <= 0) {
+            throw new IllegalArgumentException("buckets and numStripes must be positive");
+        }
+        this.buckets = buckets;
+        table = new AtomicReferenceArray<>(2 * buckets);
+        for (int i = 0; i < 2 * buckets; i++) {
+            table.set(i, EMPTY);
+        }
+        stripes = new ReentrantLock[Math.min(numStripes, 2 * buckets)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void insert(String key, int value) {
+        long h = StringIntDLeftHashTable.hash64(key);
+        int left = leftBucket(h);
+        int right = rightBucket(h);
+        ReentrantLock first = stripes[Math.min(stripe(left), stripe(right))];
+        ReentrantLock second = stripes[Math.max(stripe(left), stripe(right))];
+
+        first.lock();
+        second.lock();
+        try {
+            if (replace(left, key, value) || replace(right, key, value)) {
+                return;
+            }
+            Entry[] leftBucket = table.get(left);
+            Entry[] rightBucket = table.get(right);
+            int target = leftBucket.length <= rightBucket.length ? left : right;
+            Entry[] bucket = target == left ? leftBucket : rightBucket;
+            Entry[] grown = new Entry[bucket.length + 1];
+            System.arraycopy(bucket, 0, grown, 0, bucket.length);
+            grown[bucket.length] = new Entry(key, value);
+            table.set(target, grown);
+            if (HashMetrics.ENABLED) {
+                HashMetrics.recordInsert(grown.length);
+            }
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    public int lookup(String key) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.LOOKUPS.increment();
+            HashMetrics.PROBES.increment();
+        }
+        long h = StringIntDLeftHashTable.hash64(key);
+        for (Entry entry : table.get(leftBucket(h))) {
+            if (entry.key.equals(key)) {
+                return entry.value;
+            }
+        }
+        if (HashMetrics.ENABLED) {
+            HashMetrics.PROBES.increment();
+        }
+        for (Entry entry : table.get(rightBucket(h))) {
+            if (entry.key.equals(key)) {
+                return entry.value;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    // Weakly consistent under concurrent inserts, like ConcurrentHashMap.size().
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < table.length(); i++) {
+            size += table.get(i).length;
+        }
+        return size;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    // Caller holds the bucket's stripe lock.
+    private boolean replace(int bucket, String key, int value) {
+        Entry[] entries = table.get(bucket);
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].key.equals(key)) {
+                Entry[] copy = entries.clone();
+                copy[i] = new Entry(key, value);
+                table.set(bucket, copy);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int stripe(int bucket) {
+        return bucket % stripes.length;
+    }
+
+    private int leftBucket(long h) {
+        return (int) (((h & 0xFFFFFFFFL) * buckets) >>> 32);
+    }
+
+    private int rightBucket(long h) {
+        return buckets + (int) (((h >>> 32) * buckets) >>> 32);
+    }
+}
@@ -34,10 +34,10 @@ public class DLeftHashTable {
 
         Entry entry = new Entry(key, value);
 
-        if (leftBucket.size() <= rightBucket.size()) {
-            leftBucket.add(entry);
-        } else {
-            rightBucket.add(entry);
+        List<Entry> bucket = leftBucket.size() <= rightBucket.size() ? leftBucket : rightBucket;
+        bucket.add(entry);
+        if (HashMetrics.ENABLED) {
+            HashMetrics.recordInsert(bucket.size());
         }
     }
 
@@ -46,6 +46,10 @@ public class DLeftHashTable {
         int leftHash = hash(key, leftTable.size());
         int rightHash = hash(key, rightTable.size());
 
+        if (HashMetrics.ENABLED) {
+            HashMetrics.LOOKUPS.increment();
+            HashMetrics.PROBES.increment();
+        }
         List<Entry> leftBucket = leftTable.get(leftHash);
         if (leftBucket != null) {
             for (Entry entry : leftBucket) {
@@ -55,6 +59,9 @@ public class DLeftHashTable {
             }
         }
 
+        if (HashMetrics.ENABLED) {
+            HashMetrics.PROBES.increment();
+        }
         List<Entry> rightBucket = rightTable.get(rightHash);
         if (rightBucket != null) {
             for (Entry entry : rightBucket) {
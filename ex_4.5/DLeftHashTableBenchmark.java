@@ -0,0 +1,161 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Throughput of ConcurrentDLeftHashTable against a single-lock StringIntDLeftHashTable at several
+// thread counts and read/write mixes, then StringIntDLeftHashTable.lookupAll against single lookups.
+public class DLeftHashTableBenchmark {
+    private static final int KEYS = 1 << 20;
+    private static final int OPS_PER_THREAD = 2_000_000;
+    private static final int[] READ_PERCENTS = {50, 90, 99};
+    private static final int BATCH = 1024;
+    private static final int BATCHES = 1000;
+    private static final int BATCH_ROUNDS = 5;
+
+    interface Table {
+        void insert(String key, int value);
+
+        int lookup(String key);
+    }
+
+    // Usage: java DLeftHashTableBenchmark [maxThreads]
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String[] keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+        }
+
+        for (int readPercent : READ_PERCENTS) {
+            System.out.println("\n" + readPercent + "% reads:");
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                ConcurrentDLeftHashTable concurrent = new ConcurrentDLeftHashTable(KEYS / 4);
+                StringIntDLeftHashTable plain = new StringIntDLeftHashTable(KEYS / 4);
+                Object lock = new Object();
+                Table locked = new Table() {
+                    public void insert(String key, int value) {
+                        synchronized (lock) {
+                            plain.insert(key, value);
+                        }
+                    }
+
+                    public int lookup(String key) {
+                        synchronized (lock) {
+                            return plain.lookup(key);
+                        }
+                    }
+                };
+                Table striped = new Table() {
+                    public void insert(String key, int value) {
+                        concurrent.insert(key, value);
+                    }
+
+                    public int lookup(String key) {
+                        return concurrent.lookup(key);
+                    }
+                };
+
+                double lockedRate = run(locked, keys, threads, readPercent);
+                double stripedRate = run(striped, keys, threads, readPercent);
+                System.out.println(threads + " threads: single lock " + lockedRate + " Mops/s, striped " + stripedRate + " Mops/s");
+            }
+        }
+
+        System.out.println("\nBatches of " + BATCH + " random keys, half of them absent:");
+        measureBatches(keys);
+    }
+
+    // lookupAll against a lookup loop. Every timed batch draws fresh random keys, so neither path finds
+    // the buckets the other one just pulled into cache.
+    private static void measureBatches(String[] keys) {
+        StringIntDLeftHashTable table = new StringIntDLeftHashTable(KEYS / 4);
+        for (int i = 0; i < keys.length; i += 2) {
+            table.insert(keys[i], i);
+        }
+        Random random = new Random(42);
+        String[] batch = new String[BATCH];
+        int[] results = new int[BATCH];
+        for (int b = 0; b < BATCHES; b++) {
+            fill(batch, random, keys);
+            table.lookupAll(batch, BATCH, results);
+            for (int i = 0; i < BATCH; i++) {
+                if (results[i] != table.lookup(batch[i])) {
+                    throw new IllegalStateException("lookupAll disagrees with lookup for " + batch[i]);
+                }
+            }
+        }
+
+        long single = 0;
+        long batched = 0;
+        for (int round = 0; round <= BATCH_ROUNDS; round++) {
+            for (int b = 0; b < BATCHES; b++) {
+                fill(batch, random, keys);
+                long start = System.nanoTime();
+                for (int i = 0; i < BATCH; i++) {
+                    results[i] = table.lookup(batch[i]);
+                }
+                long middle = System.nanoTime();
+                fill(batch, random, keys);
+                long resume = System.nanoTime();
+                table.lookupAll(batch, BATCH, results);
+                long end = System.nanoTime();
+                if (round > 0) {
+                    // Round 0 is warm-up.
+                    single += middle - start;
+                    batched += end - resume;
+                }
+            }
+        }
+        double total = (double) BATCH_ROUNDS * BATCHES * BATCH;
+        System.out.println("lookup: " + single / total + " ns/key, lookupAll: " + batched / total + " ns/key");
+    }
+
+    private static void fill(String[] batch, Random random, String[] keys) {
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = keys[random.nextInt(keys.length)];
+        }
+    }
+
+    private static double run(Table table, String[] keys, int threads, int readPercent) throws InterruptedException {
+        for (int i = 0; i < keys.length; i += 2) {
+            table.insert(keys[i], i);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int sink = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int op = 0; op < OPS_PER_THREAD; op++) {
+                    String key = keys[random.nextInt(keys.length)];
+                    if (random.nextInt(100) < readPercent) {
+                        sink += table.lookup(key);
+                    } else {
+                        table.insert(key, op);
+                    }
+                }
+                if (sink == 42) {
+                    System.out.print("");
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long end = System.nanoTime();
+        return (double) threads * OPS_PER_THREAD / ((end - begin) / 1_000.0);
+    }
+}
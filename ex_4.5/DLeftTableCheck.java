@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Randomised check of LongIntDLeftHashTable and StringIntDLeftHashTable against HashMap. Both tables
+// start with a single bucket per side, so the insert stream goes through many resizes; keys repeat
+// often enough that overwrites are exercised too. The string stream mixes in 1024 distinct keys that
+// all share one String.hashCode, which only the tables' own 64-bit hash can tell apart.
+public class DLeftTableCheck {
+    private static final int INSERTS = 300_000;
+    private static final int PROBE_EVERY = 1000;
+    private static final int PROBES = 200;
+
+    // Usage: java DLeftTableCheck [seed]
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 7;
+        checkLongInt(new Random(seed));
+        checkStringInt(new Random(seed));
+    }
+
+    private static void checkLongInt(Random random) {
+        LongIntDLeftHashTable table = new LongIntDLeftHashTable(1);
+        Map<Long, Integer> expected = new HashMap<>();
+        List<Long> inserted = new ArrayList<>();
+        for (int i = 0; i < INSERTS; i++) {
+            // Negative keys and a range about twice the insert count, so about a fifth are overwrites.
+            long key = random.nextInt(2 * INSERTS) - INSERTS;
+            int value = value(random);
+            table.insert(key, value);
+            if (expected.put(key, value) == null) {
+                inserted.add(key);
+            }
+            if (i % PROBE_EVERY == 0) {
+                for (int p = 0; p < PROBES; p++) {
+                    long probe = p % 2 == 0 ? inserted.get(random.nextInt(inserted.size())) : random.nextLong();
+                    checkLong(table, expected, probe);
+                }
+            }
+        }
+        for (long key : inserted) {
+            checkLong(table, expected, key);
+        }
+        check(table.size() == expected.size(), "LongInt size " + table.size() + " != " + expected.size());
+        System.out.println("LongIntDLeftHashTable matched HashMap over " + INSERTS + " inserts ("
+                + expected.size() + " keys, grown to " + table.getBuckets() + " buckets per side).");
+    }
+
+    private static void checkStringInt(Random random) {
+        StringIntDLeftHashTable table = new StringIntDLeftHashTable(1);
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> inserted = new ArrayList<>();
+        String[] colliding = collidingKeys(10);
+        for (int i = 0; i < INSERTS; i++) {
+            String key = i % 100 == 0
+                    ? colliding[random.nextInt(colliding.length)]
+                    : "s" + (random.nextInt(2 * INSERTS) - INSERTS);
+            int value = value(random);
+            table.insert(key, value);
+            if (expected.put(key, value) == null) {
+                inserted.add(key);
+            }
+            if (i % PROBE_EVERY == 0) {
+                String[] batch = new String[PROBES];
+                for (int p = 0; p < PROBES; p++) {
+                    batch[p] = p % 2 == 0 ? inserted.get(random.nextInt(inserted.size())) : "x" + random.nextInt();
+                    checkString(table, expected, batch[p]);
+                }
+                int[] values = new int[PROBES];
+                table.lookupAll(batch, PROBES, values);
+                for (int p = 0; p < PROBES; p++) {
+                    Integer want = expected.get(batch[p]);
+                    check(values[p] == (want == null ? table.getMissingValue() : want),
+                            "lookupAll(\"" + batch[p] + "\") = " + values[p] + ", expected " + want);
+                }
+            }
+        }
+        // Every colliding key, whether or not the stream happened to insert it.
+        for (String key : colliding) {
+            checkString(table, expected, key);
+        }
+        for (String key : inserted) {
+            checkString(table, expected, key);
+        }
+        check(table.size() == expected.size(), "StringInt size " + table.size() + " != " + expected.size());
+        System.out.println("StringIntDLeftHashTable matched HashMap over " + INSERTS + " inserts ("
+                + expected.size() + " keys, " + colliding.length + " sharing one hashCode, grown to "
+                + table.getBuckets() + " buckets per side).");
+    }
+
+    private static void checkLong(LongIntDLeftHashTable table, Map<Long, Integer> expected, long key) {
+        Integer want = expected.get(key);
+        int got = table.lookup(key);
+        check(got == (want == null ? table.getMissingValue() : want),
+                "LongInt lookup(" + key + ") = " + got + ", expected " + want);
+        check(table.containsKey(key) == (want != null), "LongInt containsKey(" + key + ") disagrees");
+    }
+
+    private static void checkString(StringIntDLeftHashTable table, Map<String, Integer> expected, String key) {
+        Integer want = expected.get(key);
+        int got = table.lookup(key);
+        check(got == (want == null ? table.getMissingValue() : want),
+                "StringInt lookup(\"" + key + "\") = " + got + ", expected " + want);
+        check(table.containsKey(key) == (want != null), "StringInt containsKey(\"" + key + "\") disagrees");
+    }
+
+    // 2^blocks strings of "Aa" and "BB" blocks; "Aa" and "BB" have the same hashCode, so all of these do.
+    private static String[] collidingKeys(int blocks) {
+        String[] keys = new String[1 << blocks];
+        for (int i = 0; i < keys.length; i++) {
+            StringBuilder key = new StringBuilder(2 * blocks);
+            for (int b = 0; b < blocks; b++) {
+                key.append((i >>> b & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = key.toString();
+        }
+        for (String key : keys) {
+            check(key.hashCode() == keys[0].hashCode(), "colliding keys do not collide");
+        }
+        return keys;
+    }
+
+    // Any int but NO_VALUE, which the tables reserve for absent keys.
+    private static int value(Random random) {
+        int value = random.nextInt();
+        return value == LongIntDLeftHashTable.NO_VALUE ? 0 : value;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
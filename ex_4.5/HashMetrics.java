@@ -0,0 +1,51 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters shared by the d-left tables, enabled with -Dmetrics.enabled=true. Only caller traffic is
+// counted: the primitive tables rehash through a path that bypasses these counters when they grow.
+public final class HashMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("metrics.enabled");
+
+    // OCCUPANCY[n] counts inserts that left their bucket holding n entries; the last slot is n or more.
+    static final int MAX_TRACKED_OCCUPANCY = 8;
+
+    static final LongAdder INSERTS = new LongAdder();
+    static final LongAdder LOOKUPS = new LongAdder();
+    static final LongAdder PROBES = new LongAdder();
+    static final LongAdder[] OCCUPANCY = new LongAdder[MAX_TRACKED_OCCUPANCY + 1];
+
+    static {
+        for (int i = 0; i < OCCUPANCY.length; i++) {
+            OCCUPANCY[i] = new LongAdder();
+        }
+    }
+
+    private HashMetrics() {
+    }
+
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("hash.inserts", INSERTS.sum());
+        snapshot.put("hash.lookups", LOOKUPS.sum());
+        snapshot.put("hash.bucketProbes", PROBES.sum());
+        for (int i = 1; i < OCCUPANCY.length; i++) {
+            snapshot.put("hash.occupancy." + i + (i == MAX_TRACKED_OCCUPANCY ? "+" : ""), OCCUPANCY[i].sum());
+        }
+        return snapshot;
+    }
+
+    public static void reset() {
+        INSERTS.reset();
+        LOOKUPS.reset();
+        PROBES.reset();
+        for (LongAdder adder : OCCUPANCY) {
+            adder.reset();
+        }
+    }
+
+    static void recordInsert(int occupancy) {
+        INSERTS.increment();
+        OCCUPANCY[Math.min(occupancy, MAX_TRACKED_OCCUPANCY)].increment();
+    }
+}
@@ -0,0 +1,164 @@
+// long -> int d-left table (d = 2) over parallel primitive arrays. Each half has `buckets` buckets
+// of SLOTS slots; a key goes to the less loaded of its two candidate buckets, ties going left.
+// A one-byte fingerprint per slot lets lookups skip key comparisons for most non-matching slots.
+// Neither insert (outside of a resize) nor lookup allocates.
+public class LongIntDLeftHashTable {
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    static final int SLOTS = 4;
+    static final int MAX_BUCKETS = Integer.MAX_VALUE / (2 * SLOTS);
+
+    private int buckets;
+    private long[] keys;
+    private int[] values;
+    private byte[] fingerprints;
+    private byte[] counts;
+    private int size;
+    private int missingValue;
+
+    public LongIntDLeftHashTable(int buckets) {
+        this(buckets, NO_VALUE);
+    }
+
+    // missingValue is what lookup returns for absent keys; pick one that is never stored.
+    public LongIntDLeftHashTable(int buckets, int missingValue) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        this.missingValue = missingValue;
+        allocate(buckets);
+    }
+
+    public void insert(long key, int value) {
+        long h = mix(key);
+        byte fp = fingerprint(h);
+        int left = leftBucket(h);
+        int right = rightBucket(h);
+
+        int slot = find(left, key, fp);
+        if (slot < 0) {
+            slot = find(right, key, fp);
+        }
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+
+        int occupancy = place(key, h, value);
+        if (HashMetrics.ENABLED) {
+            HashMetrics.recordInsert(occupancy);
+        }
+    }
+
+    // Stores a key known to be absent in the less loaded of its buckets, growing the table if both are
+    // full, and returns that bucket's new occupancy. Skips HashMetrics so that resizing, which reinserts
+    // through here, does not count as caller traffic.
+    private int place(long key, long h, int value) {
+        int left = leftBucket(h);
+        int right = rightBucket(h);
+        int bucket = counts[left] <= counts[right] ? left : right;
+        if (counts[bucket] == SLOTS) {
+            resize();
+            return place(key, h, value);
+        }
+        int slot = bucket * SLOTS + counts[bucket]++;
+        keys[slot] = key;
+        values[slot] = value;
+        fingerprints[slot] = fingerprint(h);
+        size++;
+        return counts[bucket];
+    }
+
+    public int lookup(long key) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.LOOKUPS.increment();
+        }
+        long h = mix(key);
+        byte fp = fingerprint(h);
+        int slot = find(leftBucket(h), key, fp);
+        if (slot < 0) {
+            slot = find(rightBucket(h), key, fp);
+        }
+        return slot >= 0 ? values[slot] : missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        long h = mix(key);
+        byte fp = fingerprint(h);
+        return find(leftBucket(h), key, fp) >= 0 || find(rightBucket(h), key, fp) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    private int find(int bucket, long key, byte fp) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.PROBES.increment();
+        }
+        int base = bucket * SLOTS;
+        int end = base + counts[bucket];
+        for (int slot = base; slot < end; slot++) {
+            if (fingerprints[slot] == fp && keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Both candidate buckets were full: double the table and reinsert everything.
+    private void resize() {
+        if (buckets > MAX_BUCKETS / 2) {
+            throw new IllegalStateException("table cannot grow beyond " + MAX_BUCKETS + " buckets per half");
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        byte[] oldCounts = counts;
+        allocate(buckets * 2);
+        for (int bucket = 0; bucket < oldCounts.length; bucket++) {
+            for (int slot = bucket * SLOTS; slot < bucket * SLOTS + oldCounts[bucket]; slot++) {
+                place(oldKeys[slot], mix(oldKeys[slot]), oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int buckets) {
+        this.buckets = buckets;
+        keys = new long[2 * buckets * SLOTS];
+        values = new int[2 * buckets * SLOTS];
+        fingerprints = new byte[2 * buckets * SLOTS];
+        counts = new byte[2 * buckets];
+        size = 0;
+    }
+
+    // Left buckets are [0, buckets), right buckets [buckets, 2 * buckets), chosen from independent halves of the hash.
+    private int leftBucket(long h) {
+        return (int) (((h & 0xFFFFFFFFL) * buckets) >>> 32);
+    }
+
+    private int rightBucket(long h) {
+        return buckets + (int) (((h >>> 32) * buckets) >>> 32);
+    }
+
+    // The lowest hash bits barely influence the multiply-shift bucket choice, so they make a good fingerprint.
+    private static byte fingerprint(long h) {
+        return (byte) h;
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
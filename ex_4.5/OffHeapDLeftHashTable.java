@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// String -> int d-left table that lives entirely outside the Java heap. Buckets are fixed 64-byte
+// records (a count and five slots of fingerprint, key offset and value) in one buffer; key characters
+// are appended to a second buffer, the key arena. Either both buffers are direct, or both are mapped
+// from one file whose header records the arena fill, so reopening the file restores the table as is.
+//
+// Layout, little-endian: header (magic, version, buckets, size as ints; arenaCapacity, arenaUsed as
+// longs), 2 * buckets bucket records, then the arena of (char count, UTF-16 chars) records.
+// Without java.lang.foreign on this JDK each region is a ByteBuffer and so limited to 2 GiB.
+public class OffHeapDLeftHashTable {
+    public static final int NO_VALUE = LongIntDLeftHashTable.NO_VALUE;
+
+    static final int MAGIC = 0x444C4854; // "DLHT"
+    static final int VERSION = 2; // 2: fingerprints taken from bits neither bucket index uses
+    static final int HEADER_BYTES = 32;
+    static final int SLOTS = 5;
+    static final int SLOT_BYTES = 12;
+    static final int BUCKET_BYTES = 64;
+
+    private ByteBuffer header;
+    private ByteBuffer table;
+    private ByteBuffer arena;
+    private int buckets;
+
+    private OffHeapDLeftHashTable(ByteBuffer header, ByteBuffer table, ByteBuffer arena) {
+        this.header = header.order(ByteOrder.LITTLE_ENDIAN);
+        this.table = table.order(ByteOrder.LITTLE_ENDIAN);
+        this.arena = arena.order(ByteOrder.LITTLE_ENDIAN);
+        buckets = this.header.getInt(8);
+    }
+
+    // In-memory table in direct buffers, gone when the object is collected.
+    public OffHeapDLeftHashTable(int buckets, int arenaBytes) {
+        this(ByteBuffer.allocateDirect(HEADER_BYTES), ByteBuffer.allocateDirect(tableBytes(buckets, arenaBytes)),
+                ByteBuffer.allocateDirect(arenaBytes));
+        writeHeader(header, buckets, arenaBytes);
+        this.buckets = buckets;
+    }
+
+    // Opens the table stored in the file, or creates it there with the given geometry if the file
+    // does not exist yet. The geometry of an existing file wins over the arguments.
+    public static OffHeapDLeftHashTable open(Path path, int buckets, int arenaBytes) throws IOException {
+        long fileBytes = Files.exists(path) ? Files.size(path) : 0;
+        boolean exists = fileBytes > 0;
+        if (exists && fileBytes < HEADER_BYTES) {
+            // Mapping the header would silently extend a short file rather than fail.
+            throw new IOException(path + " is not a d-left table file");
+        }
+        if (!exists) {
+            // Mapping the header extends the file, so reject bad geometry before anything is written.
+            tableBytes(buckets, arenaBytes);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (exists) {
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IOException(path + " is not a d-left table file");
+                }
+                buckets = header.getInt(8);
+                long storedArena = header.getLong(16);
+                long expected = HEADER_BYTES + 2L * buckets * BUCKET_BYTES + storedArena;
+                if (buckets <= 0 || storedArena <= 0 || storedArena > Integer.MAX_VALUE || fileBytes < expected) {
+                    throw new IOException(path + " is truncated or corrupt");
+                }
+                arenaBytes = (int) storedArena;
+            } else {
+                writeHeader(header, buckets, arenaBytes);
+            }
+            int tableBytes = tableBytes(buckets, arenaBytes);
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, tableBytes);
+            MappedByteBuffer arena = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) tableBytes, arenaBytes);
+            return new OffHeapDLeftHashTable(header, table, arena);
+        } catch (IOException | RuntimeException e) {
+            if (!exists) {
+                // Don't leave a half-written file that every later open would reject.
+                Files.deleteIfExists(path);
+            }
+            throw e;
+        }
+    }
+
+    public void insert(String key, int value) {
+        long h = StringIntDLeftHashTable.hash64(key);
+        int fp = fingerprint(h);
+        int left = leftBucket(h);
+        int right = rightBucket(h);
+
+        int slot = find(left, key, fp);
+        if (slot < 0) {
+            slot = find(right, key, fp);
+        }
+        if (slot >= 0) {
+            table.putInt(slot + 8, value);
+            return;
+        }
+
+        int leftCount = table.getInt(left * BUCKET_BYTES);
+        int rightCount = table.getInt(right * BUCKET_BYTES);
+        int bucket = leftCount <= rightCount ? left : right;
+        int count = Math.min(leftCount, rightCount);
+        if (count == SLOTS) {
+            throw new IllegalStateException("both candidate buckets are full; create a larger table");
+        }
+
+        int keyOffset = appendKey(key);
+        slot = bucket * BUCKET_BYTES + 4 + count * SLOT_BYTES;
+        table.putInt(slot, fp);
+        table.putInt(slot + 4, keyOffset);
+        table.putInt(slot + 8, value);
+        table.putInt(bucket * BUCKET_BYTES, count + 1);
+        if (HashMetrics.ENABLED) {
+            HashMetrics.recordInsert(count + 1);
+        }
+        header.putInt(12, header.getInt(12) + 1);
+    }
+
+    public int lookup(String key) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.LOOKUPS.increment();
+        }
+        long h = StringIntDLeftHashTable.hash64(key);
+        int fp = fingerprint(h);
+        int slot = find(leftBucket(h), key, fp);
+        if (slot < 0) {
+            slot = find(rightBucket(h), key, fp);
+        }
+        return slot >= 0 ? table.getInt(slot + 8) : NO_VALUE;
+    }
+
+    public int size() {
+        return header.getInt(12);
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public long arenaUsed() {
+        return header.getLong(24);
+    }
+
+    // Writes dirty pages of a file-backed table to disk; a no-op for in-memory tables.
+    public void flush() {
+        for (ByteBuffer buffer : new ByteBuffer[] {table, arena, header}) {
+            if (buffer instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) buffer).force();
+            }
+        }
+    }
+
+    // Returns the byte offset of the matching slot in the table buffer, or -1.
+    private int find(int bucket, String key, int fp) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.PROBES.increment();
+        }
+        int base = bucket * BUCKET_BYTES;
+        int count = table.getInt(base);
+        for (int i = 0; i < count; i++) {
+            int slot = base + 4 + i * SLOT_BYTES;
+            if (table.getInt(slot) == fp && keyEquals(table.getInt(slot + 4), key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int offset, String key) {
+        if (arena.getInt(offset) != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (arena.getChar(offset + 4 + 2 * i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int appendKey(String key) {
+        long used = header.getLong(24);
+        long needed = 4 + 2L * key.length();
+        if (used + needed > arena.capacity()) {
+            throw new IllegalStateException("key arena is full; create a larger table");
+        }
+        int offset = (int) used;
+        arena.putInt(offset, key.length());
+        for (int i = 0; i < key.length(); i++) {
+            arena.putChar(offset + 4 + 2 * i, key.charAt(i));
+        }
+        header.putLong(24, used + needed);
+        return offset;
+    }
+
+    private static void writeHeader(ByteBuffer header, int buckets, int arenaBytes) {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, buckets).putInt(12, 0);
+        header.putLong(16, arenaBytes).putLong(24, 0);
+    }
+
+    private static int tableBytes(int buckets, int arenaBytes) {
+        long bytes = 2L * buckets * BUCKET_BYTES;
+        if (buckets <= 0 || arenaBytes <= 0 || bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("buckets and arenaBytes must be positive and fit in 2 GiB buffers");
+        }
+        return (int) bytes;
+    }
+
+    private int leftBucket(long h) {
+        return (int) (((h & 0xFFFFFFFFL) * buckets) >>> 32);
+    }
+
+    private int rightBucket(long h) {
+        return buckets + (int) (((h >>> 32) * buckets) >>> 32);
+    }
+
+    // The low 16 bits of each half: multiply-shift takes the bucket from the top bits of its half, so
+    // these barely influence either index, and keys that share both buckets still differ here.
+    private static int fingerprint(long h) {
+        return (int) (h & 0xFFFF) | (int) ((h >>> 16) & 0xFFFF0000L);
+    }
+}
@@ -0,0 +1,187 @@
+// String -> int counterpart of LongIntDLeftHashTable: keys are references, everything else is primitive.
+// Buckets and fingerprint come from a 64-bit hash over the characters rather than String.hashCode,
+// whose 32-bit collisions ("Aa", "BB", ...) could otherwise send more than 2 * SLOTS keys to the same
+// pair of buckets forever. Lookups allocate nothing and only call equals on a fingerprint match.
+public class StringIntDLeftHashTable {
+    public static final int NO_VALUE = LongIntDLeftHashTable.NO_VALUE;
+
+    static final int SLOTS = LongIntDLeftHashTable.SLOTS;
+    static final int MAX_BUCKETS = LongIntDLeftHashTable.MAX_BUCKETS;
+
+    private int buckets;
+    private String[] keys;
+    private int[] values;
+    private byte[] fingerprints;
+    private byte[] counts;
+    private int size;
+    private int missingValue;
+
+    public StringIntDLeftHashTable(int buckets) {
+        this(buckets, NO_VALUE);
+    }
+
+    // missingValue is what lookup returns for absent keys; pick one that is never stored.
+    public StringIntDLeftHashTable(int buckets, int missingValue) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        this.missingValue = missingValue;
+        allocate(buckets);
+    }
+
+    public void insert(String key, int value) {
+        long h = hash64(key);
+        byte fp = fingerprint(h);
+        int left = leftBucket(h);
+        int right = rightBucket(h);
+
+        int slot = find(left, key, fp);
+        if (slot < 0) {
+            slot = find(right, key, fp);
+        }
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+
+        int occupancy = place(key, h, value);
+        if (HashMetrics.ENABLED) {
+            HashMetrics.recordInsert(occupancy);
+        }
+    }
+
+    // Stores a key known to be absent in the less loaded of its buckets, growing the table if both are
+    // full, and returns that bucket's new occupancy. Skips HashMetrics so that resizing, which reinserts
+    // through here, does not count as caller traffic.
+    private int place(String key, long h, int value) {
+        int left = leftBucket(h);
+        int right = rightBucket(h);
+        int bucket = counts[left] <= counts[right] ? left : right;
+        if (counts[bucket] == SLOTS) {
+            resize();
+            return place(key, h, value);
+        }
+        int slot = bucket * SLOTS + counts[bucket]++;
+        keys[slot] = key;
+        values[slot] = value;
+        fingerprints[slot] = fingerprint(h);
+        size++;
+        return counts[bucket];
+    }
+
+    public int lookup(String key) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.LOOKUPS.increment();
+        }
+        long h = hash64(key);
+        byte fp = fingerprint(h);
+        int slot = find(leftBucket(h), key, fp);
+        if (slot < 0) {
+            slot = find(rightBucket(h), key, fp);
+        }
+        return slot >= 0 ? values[slot] : missingValue;
+    }
+
+    // Looks up keys[0..count) into values[0..count). All keys are hashed in a first pass and probed in a
+    // second, so the probe loop is a run of independent loads the CPU can keep in flight together
+    // instead of each cache miss waiting behind the next key's hash computation.
+    public void lookupAll(String[] keys, int count, int[] values) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.LOOKUPS.add(count);
+        }
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            hashes[i] = hash64(keys[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            long h = hashes[i];
+            byte fp = fingerprint(h);
+            int slot = find(leftBucket(h), keys[i], fp);
+            if (slot < 0) {
+                slot = find(rightBucket(h), keys[i], fp);
+            }
+            values[i] = slot >= 0 ? this.values[slot] : missingValue;
+        }
+    }
+
+    public boolean containsKey(String key) {
+        long h = hash64(key);
+        byte fp = fingerprint(h);
+        return find(leftBucket(h), key, fp) >= 0 || find(rightBucket(h), key, fp) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    private int find(int bucket, String key, byte fp) {
+        if (HashMetrics.ENABLED) {
+            HashMetrics.PROBES.increment();
+        }
+        int base = bucket * SLOTS;
+        int end = base + counts[bucket];
+        for (int slot = base; slot < end; slot++) {
+            if (fingerprints[slot] == fp && keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Both candidate buckets were full: double the table and reinsert everything.
+    private void resize() {
+        if (buckets > MAX_BUCKETS / 2) {
+            throw new IllegalStateException("table cannot grow beyond " + MAX_BUCKETS + " buckets per half");
+        }
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        byte[] oldCounts = counts;
+        allocate(buckets * 2);
+        for (int bucket = 0; bucket < oldCounts.length; bucket++) {
+            for (int slot = bucket * SLOTS; slot < bucket * SLOTS + oldCounts[bucket]; slot++) {
+                place(oldKeys[slot], hash64(oldKeys[slot]), oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int buckets) {
+        this.buckets = buckets;
+        keys = new String[2 * buckets * SLOTS];
+        values = new int[2 * buckets * SLOTS];
+        fingerprints = new byte[2 * buckets * SLOTS];
+        counts = new byte[2 * buckets];
+        size = 0;
+    }
+
+    // Left buckets are [0, buckets), right buckets [buckets, 2 * buckets), chosen from independent halves of the hash.
+    private int leftBucket(long h) {
+        return (int) (((h & 0xFFFFFFFFL) * buckets) >>> 32);
+    }
+
+    private int rightBucket(long h) {
+        return buckets + (int) (((h >>> 32) * buckets) >>> 32);
+    }
+
+    // The lowest hash bits barely influence the multiply-shift bucket choice, so they make a good fingerprint.
+    private static byte fingerprint(long h) {
+        return (byte) h;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finished with the murmur3 fmix64 avalanche.
+    static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return LongIntDLeftHashTable.mix(h);
+    }
+}